@@ -14,7 +14,7 @@ public class CreateMaps {
             KeyboardResource keyboardResource = new KeyboardResource();
             in = keyboardResource.getLine();
             if (keyboardResource.yes(in)) { //not available in original KivaWorld package
-                createMap.saveFile(map);
+                createMap.saveFile(map, createMap.getLastSeed());
             } else if (in.equalsIgnoreCase("q")) {
                 keyboardResource.close(); //not available in original KivaWorld package
                 break;
@@ -1,9 +1,11 @@
 package kivaworld;
 
+import solver.MapParser;
 import solver.Point;
 //import edu.duke.Point;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -194,15 +196,11 @@ public class FloorMap {
         boolean foundKiva = false;
         boolean foundPod = false;
         boolean foundDropZone = false;
-        List<String> rowList = this.readAndValidateMapRows(inputMap);
-        char[][] newMap = new char[rowList.size()][];
-
-        for(int rowNum = 0; rowNum < rowList.size(); ++rowNum) {
-            String line = rowList.get(rowNum);
-            newMap[rowNum] = new char[line.length()];
+        char[][] newMap = this.readAndValidateMapRows(inputMap);
 
+        for(int rowNum = 0; rowNum < newMap.length; ++rowNum) {
             for(int colNum = 0; colNum < newMap[rowNum].length; ++colNum) {
-                char mapChar = line.charAt(colNum);
+                char mapChar = newMap[rowNum][colNum];
                 if ('K' == mapChar) {
                     foundKiva = this.foundKivaLocation(colNum, rowNum, foundKiva);
                     mapChar = FloorMapObject.EMPTY.toChar();
@@ -235,26 +233,18 @@ public class FloorMap {
         }
     }
 
-    private List<String> readAndValidateMapRows(String inputMap) {
-        int rowLength = 0;
-        int rowNum = -1;
-        //todo check upcasting / downcasting rowlist in readAndValidateMapRows, List or ArrayList?
-        List<String> rowList = new ArrayList();
-        String[] var5 = inputMap.split("\r?\n");
-        int var6 = var5.length;
-
-        for (String line : var5) {
-            ++rowNum;
-            if (rowNum == 0) {
-                rowLength = line.length();
-            } else if (line.length() != rowLength) {
-                throw new InvalidMapLayoutException(String.format("Previously encountered row(s) of length %d, but row %d is of length %d", rowLength, rowNum, line.length()));
+    /**
+     * Reads the rows with the shared streaming MapParser, checking that every row is as long as the first.
+     */
+    private char[][] readAndValidateMapRows(String inputMap) {
+        List<char[]> rowList = new ArrayList<>();
+        MapParser.parse(inputMap, MapParser.Ends.DROP_TRAILING_EMPTY_ROWS, (rowNum, cells, length) -> {
+            if (rowNum > 0 && length != rowList.get(0).length) {
+                throw new InvalidMapLayoutException(String.format("Previously encountered row(s) of length %d, but row %d is of length %d", rowList.get(0).length, rowNum, length));
             }
-
-            rowList.add(line);
-        }
-
-        return rowList;
+            rowList.add(Arrays.copyOf(cells, length));
+        });
+        return rowList.toArray(new char[0][]);
     }
 
     private boolean foundKivaLocation(int colNum, int rowNum, boolean foundKivaPreviously) {
@@ -1,5 +1,8 @@
 package kivaworld;
 
+import solver.BinaryMap;
+import solver.Maze;
+
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
@@ -27,7 +30,7 @@ public class MapResource {
     public static String getFileName(){
         System.out.println("Please select a map file.");
         JFileChooser fileChooser = new JFileChooser();
-        FileNameExtensionFilter filter = new FileNameExtensionFilter("FloorMap Files", "txt", "map", "maz", "maze", "fm", "FloorMap");
+        FileNameExtensionFilter filter = new FileNameExtensionFilter("FloorMap Files", "txt", "map", "maz", "maze", "fm", "FloorMap", BinaryMap.EXTENSION);
         fileChooser.setFileFilter(filter);
         fileChooser.setCurrentDirectory(new File(System.getProperty("user.dir")));
         fileChooser.showDialog(null,"Select");
@@ -54,7 +57,7 @@ public class MapResource {
      */
     public static File selectMap(){
         JFileChooser fileChooser = new JFileChooser();
-        FileNameExtensionFilter filter = new FileNameExtensionFilter("FloorMap Files", "txt", "map", "maz", "maze", "fm", "FloorMap");
+        FileNameExtensionFilter filter = new FileNameExtensionFilter("FloorMap Files", "txt", "map", "maz", "maze", "fm", "FloorMap", BinaryMap.EXTENSION);
         fileChooser.setFileFilter(filter);
         fileChooser.setCurrentDirectory(new File(System.getProperty("user.dir")));
         fileChooser.showDialog(null,"Select");
@@ -64,6 +67,7 @@ public class MapResource {
 
     /**
      * Reads a map File and returns the map as a String.
+     * A binary map (see solver.BinaryMap) is converted to text with solver.Maze.toMapString().
      *
      * @param map the map File to be read.
      * @return the map File as a String.
@@ -72,6 +76,9 @@ public class MapResource {
     public static String asString(File map) {
         StringBuilder mapString = new StringBuilder();
         try (Scanner input = new Scanner(map)) {
+            if (BinaryMap.isBinaryMap(map)) {
+                return BinaryMap.load(map).toMapString();
+            }
             while (input.hasNextLine()) {
                 mapString.append(input.nextLine()).append("\n");
             }
@@ -123,4 +130,38 @@ public class MapResource {
         }
         return "";
     }
+
+    /**
+     * Opens a JFileChooser save dialog and allows the user to save a map String to a binary map file.
+     * The binary format is described in solver.BinaryMap.
+     *
+     * @param map String to be saved to the file
+     * @return the name of the saved file, or an empty String if the save was canceled.
+     */
+    public static String saveBinaryMap(String map) {
+        try {
+            File path;
+            JFileChooser fileChooser = new JFileChooser();
+            FileNameExtensionFilter filter = new FileNameExtensionFilter("Binary FloorMap Files", BinaryMap.EXTENSION);
+            fileChooser.setFileFilter(filter);
+            fileChooser.setCurrentDirectory(new File(System.getProperty("user.dir")));
+            fileChooser.setSelectedFile(new File("kiva_floor_map." + BinaryMap.EXTENSION));
+            int option = fileChooser.showSaveDialog(null);
+            fileChooser.setVisible(true);
+            if (option == JFileChooser.APPROVE_OPTION) {
+                path = new File(fileChooser.getSelectedFile().getAbsolutePath());
+                String name = path.toString();
+                BinaryMap.save(new Maze(map), path);
+                System.out.println(name + " saved.");
+                return name;
+            } else {
+                System.out.println("Save canceled.");
+                return "";
+            }
+        } catch (IOException e) {
+            System.out.println("IO Error. Save canceled.");
+            e.printStackTrace();
+        }
+        return "";
+    }
 }
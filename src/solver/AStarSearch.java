@@ -0,0 +1,156 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An A* search strategy for solver.Maze() using the Manhattan distance to the goal as its heuristic.
+ * <p>
+ * Kiva moves on a 4-connected grid where every step costs 1, so the Manhattan distance never overestimates
+ * and the path returned is as short as the one found by Breadth First search,
+ * while far fewer cells are expanded on open floor maps.
+ * <p>
+ * Cells are flat {@code int} indices ({@code row * width + col}) and the open list is a primitive IntHeap.
+ * Costs are only valid for cells marked seen in the current search (see VisitedMarks), so nothing is cleared
+ * between searches.
+ * Ties on {@code f = g + h} are broken in favor of the cell with the larger {@code g},
+ * which keeps the search running toward the goal instead of widening across equal-cost cells.
+ * Subclasses can supply a stronger admissible heuristic by overriding prepare() and heuristic().
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0800
+ * @see SearchStrategy
+ * @see Solver
+ * @see AltSearch
+ */
+public class AStarSearch implements SearchStrategy {
+
+    private final IntHeap open = new IntHeap();
+    private int[] cost = new int[0];         // g, the number of steps from the start to the cell, valid if seen
+    private byte[] reachedFrom = new byte[0]; // direction index + 1 the cell was entered with, valid if seen
+    private final VisitedMarks seen = new VisitedMarks();
+    private int expanded = 0;
+
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        expanded = 0;
+        if (!maze.isValidLocation(start.getX(), start.getY()) || maze.isObstacle(start.getX(), start.getY())) {
+            return Collections.emptyList();
+        }
+        if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+            return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+        }
+        ensureCapacity(maze.getCellCount());
+
+        final int goalRow = goal.getX();
+        final int goalCol = goal.getY();
+        final int startCell = start.getX() * width + start.getY();
+        final int goalCell = goalRow * width + goalCol;
+
+        prepare(maze, goalCell);
+        open.clear();
+        seen.mark(startCell);
+        cost[startCell] = 0;
+        reachedFrom[startCell] = (byte) (FlatBreadthFirstSearch.ROW_DELTAS.length + 1);
+        open.push(key(heuristic(start.getX(), start.getY(), startCell, goalRow, goalCol), 0), startCell);
+
+        while (!open.isEmpty()) {
+            long key = open.peekKey();
+            int cell = open.poll();
+            int g = Integer.MAX_VALUE - (int) key;
+            if (g != cost[cell]) {
+                continue; // stale entry, the cell was pushed again with a lower cost
+            }
+            if (cell == goalCell) {
+                return FlatBreadthFirstSearch.backtrackPath(reachedFrom, goalCell, startCell, width);
+            }
+            expanded++;
+            int row = cell / width;
+            int col = cell - row * width;
+
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                if (nextRow < 0 || nextRow >= height || nextCol < 0 || nextCol >= width
+                        || maze.isObstacle(nextRow, nextCol)) {
+                    continue;
+                }
+                int next = nextRow * width + nextCol;
+                int nextCost = g + 1;
+                if (!seen.isMarked(next) || nextCost < cost[next]) {
+                    seen.mark(next);
+                    cost[next] = nextCost;
+                    reachedFrom[next] = (byte) (direction + 1);
+                    open.push(key(nextCost + heuristic(nextRow, nextCol, next, goalRow, goalCol), nextCost), next);
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Called once at the start of each search, before the first call to heuristic().
+     *
+     * @param maze     - the maze being searched.
+     * @param goalCell - the flat index of the goal cell.
+     */
+    protected void prepare(Maze maze, int goalCell) {
+    }
+
+    /**
+     * Estimates the number of moves from a cell to the goal. The estimate must never be more than the real distance.
+     *
+     * @param row     - the row of the cell.
+     * @param col     - the column of the cell.
+     * @param cell    - the flat index of the cell.
+     * @param goalRow - the row of the goal.
+     * @param goalCol - the column of the goal.
+     * @return the estimated number of moves to the goal, here the Manhattan distance.
+     */
+    protected int heuristic(int row, int col, int cell, int goalRow, int goalCol) {
+        return manhattan(row, col, goalRow, goalCol);
+    }
+
+    /**
+     * Returns the Manhattan (4-connected) distance between two cells.
+     *
+     * @param row1 - the row of the first cell.
+     * @param col1 - the column of the first cell.
+     * @param row2 - the row of the second cell.
+     * @param col2 - the column of the second cell.
+     * @return the number of moves between the cells on an empty floor.
+     */
+    static int manhattan(int row1, int col1, int row2, int col2) {
+        return Math.abs(row1 - row2) + Math.abs(col1 - col2);
+    }
+
+    /**
+     * Orders heap entries by {@code f}, then by the larger {@code g}.
+     * The low 32 bits hold {@code Integer.MAX_VALUE - g}, so {@code g} can be read back from the key.
+     */
+    static long key(int f, int g) {
+        return ((long) f << 32) | (Integer.MAX_VALUE - g);
+    }
+
+    /**
+     * Grows the scratch arrays if needed and clears the seen marks for the next search,
+     * so a short search on a big map does not pay to clear the whole map.
+     *
+     * @param cells - the number of cells in the maze.
+     */
+    private void ensureCapacity(int cells) {
+        if (cost.length < cells) {
+            cost = new int[cells];
+            reachedFrom = new byte[cells];
+        }
+        seen.reset(cells);
+    }
+}
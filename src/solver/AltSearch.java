@@ -0,0 +1,97 @@
+package solver;
+
+/**
+ * An A* search strategy using landmark distances (ALT: A*, Landmarks, Triangle inequality) as its heuristic.
+ * <p>
+ * The heuristic is the larger of the Manhattan distance and the best landmark bound from a LandmarkTable,
+ * so it is admissible and consistent, and the paths found are as short as Breadth First search paths.
+ * It pays off on large maps that rarely change, where walls make the Manhattan distance a poor estimate.
+ * <p>
+ * The LandmarkTable is built the first time a maze is searched and rebuilt only when a different maze
+ * is searched or the maze changes (see Maze.getVersion()). A table built ahead of time can also be given.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1500
+ * @see LandmarkTable
+ * @see AStarSearch
+ */
+public class AltSearch extends AStarSearch {
+
+    /**
+     * The number of landmarks used when none is given.
+     */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private final int landmarkCount;
+    private LandmarkTable table;
+    private Maze tableMaze;
+    private int[] goalDistances = new int[0];
+
+    /**
+     * Creates an AltSearch that builds tables with DEFAULT_LANDMARKS landmarks.
+     */
+    public AltSearch() {
+        this(DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * Creates an AltSearch that builds tables with the given number of landmarks.
+     *
+     * @param landmarkCount - the number of landmarks per table.
+     */
+    public AltSearch(int landmarkCount) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("landmark count must be at least 1 (was " + landmarkCount + ")");
+        }
+        this.landmarkCount = landmarkCount;
+    }
+
+    /**
+     * Creates an AltSearch that uses a table already built for a maze.
+     *
+     * @param maze  - the maze the table was built from.
+     * @param table - the LandmarkTable for the maze.
+     */
+    public AltSearch(Maze maze, LandmarkTable table) {
+        this(table.getLandmarkCount());
+        this.table = table;
+        this.tableMaze = maze;
+    }
+
+    /**
+     * Returns the LandmarkTable used by the last search.
+     *
+     * @return the current LandmarkTable, or null if nothing has been searched yet.
+     */
+    public LandmarkTable getTable() {
+        return table;
+    }
+
+    @Override
+    protected void prepare(Maze maze, int goalCell) {
+        if (table == null || tableMaze != maze || !table.isCurrent(maze)) {
+            table = LandmarkTable.build(maze, landmarkCount);
+            tableMaze = maze;
+        }
+        int count = table.getLandmarkCount();
+        if (goalDistances.length != count) {
+            goalDistances = new int[count];
+        }
+        for (int landmark = 0; landmark < count; landmark++) {
+            goalDistances[landmark] = table.distance(landmark, goalCell);
+        }
+    }
+
+    @Override
+    protected int heuristic(int row, int col, int cell, int goalRow, int goalCol) {
+        int estimate = manhattan(row, col, goalRow, goalCol);
+        for (int landmark = 0; landmark < goalDistances.length; landmark++) {
+            int toGoal = goalDistances[landmark];
+            int toCell = table.distance(landmark, cell);
+            if (toGoal != DistanceField.UNREACHABLE && toCell != DistanceField.UNREACHABLE) {
+                estimate = Math.max(estimate, Math.abs(toGoal - toCell));
+            }
+        }
+        return estimate;
+    }
+}
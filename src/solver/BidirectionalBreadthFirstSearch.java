@@ -0,0 +1,171 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bidirectional Breadth First search strategy for solver.Maze(),
+ * meant for start-to-end mazes where a single frontier grows very large.
+ * <p>
+ * One frontier grows from the start and one from the goal. Each round expands one complete layer
+ * of whichever frontier is smaller. When a cell expanded by one side is next to a cell reached by the other,
+ * the two halves can be joined; the search finishes the current layer, keeps the shortest join,
+ * and stops. On a maze the two frontiers together cover far fewer cells than one frontier that has to reach the goal.
+ * <p>
+ * Like FlatBreadthFirstSearch, cells are flat {@code int} indices, queues are {@code int[]}
+ * and each side records the direction each cell was entered with. Each side marks the cells it has reached
+ * with a VisitedMarks, so starting a search does not clear the whole map.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0800
+ * @see SearchStrategy
+ * @see FlatBreadthFirstSearch
+ */
+public class BidirectionalBreadthFirstSearch implements SearchStrategy {
+
+    private static final int NONE = -1;
+
+    private int[] startQueue = new int[0];
+    private int[] goalQueue = new int[0];
+    private int[] startDepth = new int[0]; // steps from the start + 1, valid if reached from the start
+    private int[] goalDepth = new int[0];  // steps from the goal + 1, valid if reached from the goal
+    private byte[] startReachedFrom = new byte[0];
+    private byte[] goalReachedFrom = new byte[0];
+    private final VisitedMarks startReached = new VisitedMarks();
+    private final VisitedMarks goalReached = new VisitedMarks();
+    private int expanded = 0;
+
+    // the best join found so far, startSide was reached from the start and goalSide from the goal
+    private int bestLength;
+    private int startSide;
+    private int goalSide;
+
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        expanded = 0;
+        if (!maze.isValidLocation(start.getX(), start.getY()) || maze.isObstacle(start.getX(), start.getY())
+                || !maze.isValidLocation(goal.getX(), goal.getY()) || maze.isObstacle(goal.getX(), goal.getY())) {
+            return Collections.emptyList();
+        }
+        if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+            return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+        }
+        ensureCapacity(maze.getCellCount());
+
+        final int startCell = start.getX() * width + start.getY();
+        final int goalCell = goal.getX() * width + goal.getY();
+        startQueue[0] = startCell;
+        goalQueue[0] = goalCell;
+        startReached.mark(startCell);
+        startDepth[startCell] = 1;
+        goalReached.mark(goalCell);
+        goalDepth[goalCell] = 1;
+        int startHead = 0;
+        int startTail = 1;
+        int goalHead = 0;
+        int goalTail = 1;
+        bestLength = Integer.MAX_VALUE;
+        startSide = NONE;
+        goalSide = NONE;
+
+        while (startHead != startTail && goalHead != goalTail) {
+            if (startTail - startHead <= goalTail - goalHead) {
+                int layerEnd = startTail;
+                for (; startHead < layerEnd; startHead++) {
+                    startTail = expand(maze, startQueue[startHead], startQueue, startTail,
+                            startReached, startDepth, startReachedFrom, goalReached, goalDepth, true);
+                }
+            } else {
+                int layerEnd = goalTail;
+                for (; goalHead < layerEnd; goalHead++) {
+                    goalTail = expand(maze, goalQueue[goalHead], goalQueue, goalTail,
+                            goalReached, goalDepth, goalReachedFrom, startReached, startDepth, false);
+                }
+            }
+            if (startSide != NONE) {
+                return joinPath(startCell, goalCell, width);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Expands one cell of one side's frontier and records any join with the other side.
+     *
+     * @return the new tail of this side's queue.
+     */
+    private int expand(Maze maze, int cell, int[] queue, int tail, VisitedMarks reached, int[] depth,
+                       byte[] reachedFrom, VisitedMarks otherReached, int[] otherDepth, boolean fromStart) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        int row = cell / width;
+        int col = cell - row * width;
+        expanded++;
+        for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+            int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+            int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+            if (nextRow < 0 || nextRow >= height || nextCol < 0 || nextCol >= width
+                    || maze.isObstacle(nextRow, nextCol)) {
+                continue;
+            }
+            int next = nextRow * width + nextCol;
+            if (!reached.isMarked(next)) {
+                reached.mark(next);
+                depth[next] = depth[cell] + 1;
+                reachedFrom[next] = (byte) (direction + 1);
+                queue[tail++] = next;
+            }
+            if (otherReached.isMarked(next)) {
+                // steps: (depth[cell] - 1) + 1 + (otherDepth[next] - 1)
+                int length = depth[cell] + otherDepth[next] - 1;
+                if (length < bestLength) {
+                    bestLength = length;
+                    startSide = fromStart ? cell : next;
+                    goalSide = fromStart ? next : cell;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Joins the half path from the start to startSide with the half path from goalSide to the goal.
+     */
+    private List<Point> joinPath(int startCell, int goalCell, int width) {
+        List<Point> path = FlatBreadthFirstSearch.backtrackPath(startReachedFrom, startSide, startCell, width);
+        int cell = goalSide;
+        while (cell != goalCell) {
+            path.add(new Point(cell / width, cell % width));
+            int direction = goalReachedFrom[cell] - 1;
+            cell -= FlatBreadthFirstSearch.ROW_DELTAS[direction] * width + FlatBreadthFirstSearch.COL_DELTAS[direction];
+        }
+        path.add(new Point(goalCell / width, goalCell % width));
+        return path;
+    }
+
+    /**
+     * Grows the scratch arrays if needed and clears both sides' reached marks for the next search.
+     *
+     * @param cells - the number of cells in the maze.
+     */
+    private void ensureCapacity(int cells) {
+        if (startQueue.length < cells) {
+            startQueue = new int[cells];
+            goalQueue = new int[cells];
+            startDepth = new int[cells];
+            goalDepth = new int[cells];
+            startReachedFrom = new byte[cells];
+            goalReachedFrom = new byte[cells];
+        }
+        startReached.reset(cells);
+        goalReached.reset(cells);
+    }
+}
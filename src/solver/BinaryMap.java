@@ -0,0 +1,315 @@
+package solver;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import java.util.zip.CRC32;
+
+/**
+ * Saves and loads floor maps in a compact, versioned binary format.
+ * <p>
+ * A text map takes a byte per cell plus a newline per row, and has to be parsed and checked every time it is read.
+ * A binary map holds the layout the way solver.Maze() keeps it, so loading it is little more than reading the file:
+ * <ul>
+ * <li>a 52 byte header: the magic number {@code "KMAP"}, the format version, the height and width,
+ *     the row and column of the Kiva, the pod and the drop zone, -1 for one that is not on the map,
+ *     and the map's metadata: an {@code int} of flags and the {@code long} seed the map was generated from,
+ *     valid if flag bit 0 is set (see CreateMap.saveRandomBinaryMap()),</li>
+ * <li>the obstacle bits, one bit per cell, bit {@code row * width + col} being bit {@code (row * width + col) % 64}
+ *     of {@code long} number {@code (row * width + col) / 64},</li>
+ * <li>a CRC32 of everything before it.</li>
+ * </ul>
+ * All numbers are big-endian, as written by java.io.DataOutputStream. A 10,000 x 10,000 map takes 12.5 MB.
+ * Version 1 files, which have a 40 byte header without the metadata, can still be read.
+ * <p>
+ * Converting is lossless: a map read from text and saved as binary loads as the same Maze, and Maze.toMapString()
+ * turns it back into text that reads as the same Maze and FloorMap. The text is written the way Maze prints maps,
+ * so '#' obstacles come back as '*', '-' or '|', S as K and E as D.
+ * MapLoader recognizes binary maps by their header, so Maze(File) and MapLoader.load() read either format.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0700
+ * @see Maze#toMapString()
+ * @see MapLoader
+ * @see kivaworld.MapResource#saveBinaryMap(String)
+ * @see CreateMap#saveRandomBinaryMap(int, int, File)
+ */
+public final class BinaryMap {
+
+    /**
+     * The file extension used for binary maps.
+     */
+    public static final String EXTENSION = "kmap";
+
+    static final int FILE_MAGIC = 0x4B4D4150; // "KMAP"
+    static final int FILE_VERSION = 2;
+    static final int HEADER_BYTES = 52;
+
+    private static final int VERSION_1_HEADER_BYTES = 40;
+    private static final int HAS_SEED = 1;
+
+    private static final int CHECKSUM_BYTES = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_WORDS = Integer.MAX_VALUE - 8;
+    private static final int NONE = -1;
+
+    private BinaryMap() {
+    }
+
+    /**
+     * Saves a maze as a binary map.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @param file - the file to write.
+     * @throws IOException if the file can not be written.
+     */
+    public static void save(Maze maze, File file) throws IOException {
+        save(maze, file, 0, 0);
+    }
+
+    /**
+     * Saves a maze as a binary map and records the seed it was generated from.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @param file - the file to write.
+     * @param seed - the seed the map was generated from.
+     * @throws IOException if the file can not be written.
+     */
+    public static void save(Maze maze, File file, long seed) throws IOException {
+        save(maze, file, HAS_SEED, seed);
+    }
+
+    private static void save(Maze maze, File file, int flags, long seed) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(FILE_MAGIC);
+            buffer.putInt(FILE_VERSION);
+            buffer.putInt(maze.getHeight());
+            buffer.putInt(maze.getWidth());
+            putLocation(buffer, maze.getInitialKivaLocation());
+            putLocation(buffer, maze.getPodLocation());
+            putLocation(buffer, maze.getDropZoneLocation());
+            buffer.putInt(flags);
+            buffer.putLong(seed);
+
+            long[] obstacles = maze.obstacleWords();
+            int word = 0;
+            while (word < obstacles.length) {
+                int count = Math.min(obstacles.length - word, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(obstacles, word, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                word += count;
+                if (word < obstacles.length) {
+                    write(channel, buffer, crc);
+                }
+            }
+            if (buffer.remaining() < CHECKSUM_BYTES) {
+                write(channel, buffer, crc);
+            }
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Loads a binary map.
+     *
+     * @param file - the binary map file.
+     * @return the Maze.
+     * @throws IOException if the file can not be read, is not a binary map, or fails its checksum.
+     */
+    public static Maze load(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Maze maze = new Maze();
+            read(channel, file, maze);
+            return maze;
+        }
+    }
+
+    /**
+     * Tells whether a file starts with the binary map magic number.
+     *
+     * @param file - the file to check.
+     * @return true if the file looks like a binary map, false if it does not or can not be read.
+     */
+    public static boolean isBinaryMap(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return isBinaryMap(channel);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells whether a channel starts with the binary map magic number, without moving its position.
+     */
+    static boolean isBinaryMap(FileChannel channel) throws IOException {
+        if (channel.size() < VERSION_1_HEADER_BYTES + CHECKSUM_BYTES) {
+            return false;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) {
+                return false;
+            }
+        }
+        return magic.getInt(0) == FILE_MAGIC;
+    }
+
+    /**
+     * Returns the seed a binary map was generated from, if one was recorded when it was saved.
+     *
+     * @param file - the binary map file.
+     * @return the seed, or an empty OptionalLong if the file has none.
+     * @throws IOException if the file can not be read or is not a binary map.
+     */
+    public static OptionalLong getSeed(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, file, new CRC32());
+            return (header.flags & HAS_SEED) != 0 ? OptionalLong.of(header.seed) : OptionalLong.empty();
+        }
+    }
+
+    /**
+     * The header of a binary map.
+     */
+    private static final class Header {
+        int height;
+        int width;
+        Point kiva;
+        Point pod;
+        Point dropZone;
+        int flags = 0;
+        long seed = 0;
+    }
+
+    /**
+     * Reads and checks the header at the start of a channel, adding its bytes to the checksum.
+     */
+    private static Header readHeader(FileChannel channel, File file, CRC32 crc) throws IOException {
+        channel.position(0);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+        buffer.limit(VERSION_1_HEADER_BYTES);
+        readFully(channel, buffer, file);
+        if (buffer.getInt(0) != FILE_MAGIC) {
+            throw new IOException(file + " is not a binary map");
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version < 1 || version > FILE_VERSION) {
+            throw new IOException(file + " has binary map version " + version + ", expected 1 to " + FILE_VERSION);
+        }
+        if (version > 1) {
+            buffer.limit(HEADER_BYTES);
+            readFully(channel, buffer, file);
+        }
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.flip();
+        buffer.position(2 * Integer.BYTES);
+        Header header = new Header();
+        header.height = buffer.getInt();
+        header.width = buffer.getInt();
+        if (header.height < 1 || header.width < 1 || (((long) header.height * header.width + 63) >>> 6) > MAX_WORDS) {
+            throw new IOException(file + " has an invalid size of " + header.height + " x " + header.width);
+        }
+        header.kiva = getLocation(buffer, header.height, header.width, file);
+        header.pod = getLocation(buffer, header.height, header.width, file);
+        header.dropZone = getLocation(buffer, header.height, header.width, file);
+        if (version > 1) {
+            header.flags = buffer.getInt();
+            header.seed = buffer.getLong();
+        }
+        return header;
+    }
+
+    /**
+     * Reads a binary map from the start of a channel into a Maze that has no layout yet.
+     */
+    static void read(FileChannel channel, File file, Maze maze) throws IOException {
+        CRC32 crc = new CRC32();
+        Header header = readHeader(channel, file, crc);
+        int height = header.height;
+        int width = header.width;
+        long cells = (long) height * width;
+        int words = (int) ((cells + 63) >>> 6);
+        long expectedSize = channel.position() + (long) words * Long.BYTES + CHECKSUM_BYTES;
+        if (channel.size() != expectedSize) {
+            throw new IOException(file + " is " + channel.size() + " bytes, expected " + expectedSize);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long[] obstacles = new long[words];
+        int word = 0;
+        while (word < words) {
+            int count = Math.min(words - word, BUFFER_SIZE / Long.BYTES);
+            buffer.clear();
+            buffer.limit(count * Long.BYTES);
+            readFully(channel, buffer, file);
+            crc.update(buffer.array(), 0, buffer.limit());
+            buffer.flip();
+            LongBuffer longs = buffer.asLongBuffer();
+            longs.get(obstacles, word, count);
+            word += count;
+        }
+        buffer.clear();
+        buffer.limit(CHECKSUM_BYTES);
+        readFully(channel, buffer, file);
+        if (buffer.getInt(0) != (int) crc.getValue()) {
+            throw new IOException(file + " failed its checksum");
+        }
+        if ((cells & 63) != 0) {
+            obstacles[words - 1] &= (1L << cells) - 1;
+        }
+        maze.setLayout(height, width, obstacles, header.kiva, header.pod, header.dropZone);
+    }
+
+    private static void putLocation(ByteBuffer buffer, Point location) {
+        buffer.putInt(location == null ? NONE : location.getX());
+        buffer.putInt(location == null ? NONE : location.getY());
+    }
+
+    private static Point getLocation(ByteBuffer buffer, int height, int width, File file) throws IOException {
+        int row = buffer.getInt();
+        int col = buffer.getInt();
+        if (row == NONE && col == NONE) {
+            return null;
+        }
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            throw new IOException(file + " has a location outside the map (" + row + "," + col + ")");
+        }
+        return new Point(row, col);
+    }
+
+    /**
+     * Writes the bytes before the buffer's position and empties the buffer.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Fills the buffer up to its limit.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, File file) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException(file + " ends early");
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bit-parallel Breadth First search strategy for solver.Maze() that expands up to 64 cells per operation.
+ * <p>
+ * The open cells are copied from the maze into a bitset with each row starting on a new {@code long} word.
+ * The frontier is a bitset of the same shape: one wavefront step shifts its words left, right, up and down,
+ * masks them with the open cells, and removes the cells already reached, so up to 64 cells are expanded
+ * with a handful of bit operations. Only the words holding frontier cells and the words next to them
+ * are visited each step.
+ * <p>
+ * Instead of a parent per cell, two more bitsets record each reached cell's distance modulo 3.
+ * Neighbors are never more than one step apart, so walking back from the goal to the neighbor one step closer
+ * is a lookup in those bitsets, and the path is as short as the one found by FlatBreadthFirstSearch.
+ * A search needs under a byte of scratch per cell instead of five, so it suits the largest floors.
+ * It is about as fast as FlatBreadthFirstSearch on open floors, and faster where obstacles
+ * or aisles leave several frontier cells in each word.
+ * The open-cell bitset is kept until the maze changes (see Maze.getVersion()).
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.2300
+ * @see SearchStrategy
+ * @see FlatBreadthFirstSearch
+ * @see Maze
+ */
+public class BitParallelSearch implements SearchStrategy {
+
+    private static final int UNREACHABLE = -1;
+
+    private Maze openMaze = null;
+    private long openVersion;
+    private int width;
+    private int height;
+    private int wordsPerRow;
+    private int words;
+
+    private long[] open = new long[0];         // the open cells, each row starting on a new word
+    private long[] reached = new long[0];      // the cells reached so far
+    private long[] frontier = new long[0];     // the cells reached in the last step, all clear between searches
+    private long[] next = new long[0];         // the cells reached in this step, all clear between searches
+    private long[] distanceLow = new long[0];  // bit 0 of each reached cell's distance % 3
+    private long[] distanceHigh = new long[0]; // bit 1 of each reached cell's distance % 3
+    private IntList frontierWords = new IntList(); // the words of the frontier with a cell in them
+    private IntList nextWords = new IntList();
+    private final VisitedMarks scheduled = new VisitedMarks(); // the words already expanded this step
+    private int expanded = 0;
+
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        expanded = 0;
+        if (!isOpen(maze, start) || !isOpen(maze, goal)) {
+            return Collections.emptyList();
+        }
+        if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+            return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+        }
+        int distance = wavefront(maze, start, goal);
+        if (distance == UNREACHABLE) {
+            return Collections.emptyList();
+        }
+        return backtrackPath(goal, distance);
+    }
+
+    /**
+     * Finds the number of steps on a shortest path without building the path.
+     *
+     * @param maze  - a floor map in solver.Maze format.
+     * @param start - the starting location point (row, col).
+     * @param goal  - the goal location point (row, col).
+     * @return the number of steps from start to goal, or -1 if the goal can not be reached.
+     */
+    public int distance(Maze maze, Point start, Point goal) {
+        expanded = 0;
+        if (!isOpen(maze, start) || !isOpen(maze, goal)) {
+            return UNREACHABLE;
+        }
+        if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+            return 0;
+        }
+        return wavefront(maze, start, goal);
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Grows the wavefront one step at a time from the start until it reaches the goal.
+     *
+     * @return the distance to the goal, or UNREACHABLE.
+     */
+    private int wavefront(Maze maze, Point start, Point goal) {
+        prepare(maze);
+        Arrays.fill(reached, 0, words, 0);
+        Arrays.fill(distanceLow, 0, words, 0);
+        Arrays.fill(distanceHigh, 0, words, 0);
+        scheduled.reset(words);
+
+        int startIndex = start.getX() * wordsPerRow + (start.getY() >>> 6);
+        frontier[startIndex] = 1L << start.getY();
+        reached[startIndex] = 1L << start.getY();
+        frontierWords.clear();
+        frontierWords.add(startIndex);
+        final int goalIndex = goal.getX() * wordsPerRow + (goal.getY() >>> 6);
+        final long goalBit = 1L << goal.getY();
+
+        for (int distance = 1; frontierWords.size() > 0; distance++) {
+            long low = distance % 3 == 1 ? -1L : 0L;
+            long high = distance % 3 == 2 ? -1L : 0L;
+            scheduled.clear();
+            nextWords.clear();
+            for (int i = 0; i < frontierWords.size(); i++) {
+                // a frontier word can only reach itself, the words above and below,
+                // and the word either side if a frontier cell sits on its edge
+                int index = frontierWords.get(i);
+                int word = index % wordsPerRow;
+                long bits = frontier[index];
+                expand(index, word, low, high);
+                if (index >= wordsPerRow) {
+                    expand(index - wordsPerRow, word, low, high);
+                }
+                if (index + wordsPerRow < words) {
+                    expand(index + wordsPerRow, word, low, high);
+                }
+                if (word > 0 && (bits & 1L) != 0) {
+                    expand(index - 1, word - 1, low, high);
+                }
+                if (word < wordsPerRow - 1 && bits < 0) {
+                    expand(index + 1, word + 1, low, high);
+                }
+            }
+            clearFrontier();
+            long[] swapWords = frontier;
+            frontier = next;
+            next = swapWords;
+            IntList swapList = frontierWords;
+            frontierWords = nextWords;
+            nextWords = swapList;
+            if ((reached[goalIndex] & goalBit) != 0) {
+                for (int i = 0; i < frontierWords.size(); i++) {
+                    frontier[frontierWords.get(i)] = 0;
+                }
+                return distance;
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Adds the open cells of one word that a frontier cell next to them reaches, once per step.
+     */
+    private void expand(int index, int word, long low, long high) {
+        if (scheduled.isMarked(index)) {
+            return;
+        }
+        scheduled.mark(index);
+        long bits = frontier[index];
+        long spread = (bits << 1) | (bits >>> 1);
+        if (word > 0) {
+            spread |= frontier[index - 1] >>> 63;
+        }
+        if (word < wordsPerRow - 1) {
+            spread |= frontier[index + 1] << 63;
+        }
+        if (index >= wordsPerRow) {
+            spread |= frontier[index - wordsPerRow];
+        }
+        if (index + wordsPerRow < words) {
+            spread |= frontier[index + wordsPerRow];
+        }
+        long added = spread & open[index] & ~reached[index];
+        if (added != 0) {
+            next[index] = added;
+            reached[index] |= added;
+            distanceLow[index] |= added & low;
+            distanceHigh[index] |= added & high;
+            nextWords.add(index);
+        }
+    }
+
+    /**
+     * Counts the frontier cells as expanded and clears them, so the frontier is empty for the next step.
+     */
+    private void clearFrontier() {
+        for (int i = 0; i < frontierWords.size(); i++) {
+            int index = frontierWords.get(i);
+            expanded += Long.bitCount(frontier[index]);
+            frontier[index] = 0;
+        }
+    }
+
+    /**
+     * Walks back from the goal, each step to the neighbor one step closer to the start,
+     * in UP, RIGHT, DOWN, LEFT order on ties.
+     */
+    private List<Point> backtrackPath(Point goal, int distance) {
+        List<Point> path = new ArrayList<>(distance + 1);
+        int row = goal.getX();
+        int col = goal.getY();
+        path.add(new Point(row, col));
+        for (int steps = distance - 1; steps >= 0; steps--) {
+            int remainder = steps % 3;
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                if (nextRow >= 0 && nextRow < height && nextCol >= 0 && nextCol < width
+                        && isReached(nextRow, nextCol) && distanceRemainder(nextRow, nextCol) == remainder) {
+                    row = nextRow;
+                    col = nextCol;
+                    break;
+                }
+            }
+            path.add(new Point(row, col));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private boolean isReached(int row, int col) {
+        return (reached[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    private int distanceRemainder(int row, int col) {
+        int index = row * wordsPerRow + (col >>> 6);
+        long bit = 1L << col;
+        return ((distanceLow[index] & bit) != 0 ? 1 : 0) + ((distanceHigh[index] & bit) != 0 ? 2 : 0);
+    }
+
+    /**
+     * Copies the open cells from the maze, unless they were copied from the same maze at the same version,
+     * and grows the scratch bitsets if needed.
+     */
+    private void prepare(Maze maze) {
+        if (maze == openMaze && maze.getVersion() == openVersion) {
+            return;
+        }
+        width = maze.getWidth();
+        height = maze.getHeight();
+        wordsPerRow = (width + 63) >>> 6;
+        words = height * wordsPerRow;
+        if (open.length < words) {
+            open = new long[words];
+            reached = new long[words];
+            frontier = new long[words];
+            next = new long[words];
+            distanceLow = new long[words];
+            distanceHigh = new long[words];
+        }
+        maze.copyOpenRows(wordsPerRow, open);
+        openVersion = maze.getVersion();
+        openMaze = maze;
+    }
+
+    private static boolean isOpen(Maze maze, Point location) {
+        return maze.isValidLocation(location.getX(), location.getY()) && !maze.isObstacle(location.getX(), location.getY());
+    }
+}
@@ -0,0 +1,545 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * The abstract graph of a solver.Maze() divided into square clusters, used by HierarchicalSearch.
+ * <p>
+ * Wherever two neighboring clusters share a run of open cells along their border, the run becomes an entrance:
+ * one pair of cells across the border in the middle of a short run, or one pair at each end of a long run.
+ * The entrance cells of a cluster are the nodes of the abstract graph. Nodes across a border are joined
+ * by an edge of length 1, and the nodes of one cluster are joined by their Breadth First distances
+ * inside the cluster, which are precomputed for every cluster in parallel.
+ * <p>
+ * When the maze changes, refresh() compares each cluster's cells to a snapshot taken when it was last computed
+ * and rebuilds only the clusters whose cells or entrances changed.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1700
+ * @see HierarchicalSearch
+ */
+public class ClusterGraph {
+
+    static final int UNREACHABLE = -1;
+    private static final int LONG_ENTRANCE = 6; // runs at least this long get an entrance at each end
+
+    private final int width;
+    private final int height;
+    private final int clusterSize;
+    private final int clustersAcross;
+    private final int clustersDown;
+    private long mazeVersion;
+
+    private final long[][] snapshots;  // the obstacle bits of each cluster when it was last computed
+    private final int[][] rightPairs;  // cells on a cluster's right edge that are entrances to the cluster to the right
+    private final int[][] downPairs;   // cells on a cluster's bottom edge that are entrances to the cluster below
+    private final int[][] entrances;   // the entrance cells of each cluster, sorted
+    private final int[][] distances;   // entrance to entrance distances inside each cluster, k * k per cluster
+
+    // the abstract graph, renumbered after every build and refresh
+    private int[] firstNode;           // the nodes of cluster c are firstNode[c] .. firstNode[c + 1] - 1
+    private int[] nodeCluster;
+    private int[] nodeCell;
+    private int[] interFirst;          // the edges across borders of node n are interFirst[n] .. interFirst[n + 1] - 1
+    private int[] interTarget;
+
+    // idle search scratch, borrowed by one task or query at a time and given back afterwards
+    private final ConcurrentLinkedQueue<LocalSearch> idleLocalSearches = new ConcurrentLinkedQueue<>();
+    private long buildMillis;
+    private int rebuiltClusters;
+
+    private ClusterGraph(Maze maze, int clusterSize) {
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersAcross = (width + clusterSize - 1) / clusterSize;
+        this.clustersDown = (height + clusterSize - 1) / clusterSize;
+        int clusters = clustersAcross * clustersDown;
+        snapshots = new long[clusters][];
+        rightPairs = new int[clusters][];
+        downPairs = new int[clusters][];
+        entrances = new int[clusters][];
+        distances = new int[clusters][];
+    }
+
+    /**
+     * Divides a maze into clusters and computes the abstract graph, one cluster per task in parallel.
+     *
+     * @param maze        - a floor map in solver.Maze format.
+     * @param clusterSize - the width and height of a cluster in cells.
+     * @return the ClusterGraph for the maze.
+     */
+    public static ClusterGraph build(Maze maze, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("cluster size must be at least 2 (was " + clusterSize + ")");
+        }
+        long started = System.currentTimeMillis();
+        ClusterGraph graph = new ClusterGraph(maze, clusterSize);
+        int clusters = graph.getClusterCount();
+        graph.mazeVersion = maze.getVersion();
+        IntStream.range(0, clusters).parallel().forEach(c -> {
+            graph.snapshots[c] = graph.snapshot(maze, c);
+            graph.findBorderEntrances(maze, c);
+        });
+        IntStream.range(0, clusters).parallel().forEach(c -> {
+            graph.entrances[c] = graph.collectEntrances(c);
+            graph.distances[c] = graph.entranceDistances(maze, c);
+        });
+        graph.renumber();
+        graph.rebuiltClusters = clusters;
+        graph.buildMillis = System.currentTimeMillis() - started;
+        return graph;
+    }
+
+    /**
+     * Brings the graph up to date with a maze that has changed since the graph was built,
+     * rebuilding only the clusters whose cells or entrances changed.
+     *
+     * @param maze - the maze the graph was built from.
+     * @return the number of clusters rebuilt, 0 if the graph was already current.
+     */
+    public int refresh(Maze maze) {
+        if (maze.getWidth() != width || maze.getHeight() != height) {
+            throw new IllegalArgumentException("maze size changed from " + width + "x" + height
+                    + " to " + maze.getWidth() + "x" + maze.getHeight());
+        }
+        if (isCurrent(maze)) {
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        long version = maze.getVersion();
+        final int clusters = getClusterCount();
+        final boolean[] changed = new boolean[clusters];
+        IntStream.range(0, clusters).parallel().forEach(c -> {
+            long[] cells = snapshot(maze, c);
+            if (!Arrays.equals(cells, snapshots[c])) {
+                snapshots[c] = cells;
+                changed[c] = true;
+            }
+        });
+
+        // a changed cluster moves the entrances on all four of its borders,
+        // the left and top ones are kept by the neighbors on those sides
+        boolean[] borders = new boolean[clusters];
+        boolean[] affected = new boolean[clusters];
+        for (int c = 0; c < clusters; c++) {
+            if (changed[c]) {
+                borders[c] = true;
+                affected[c] = true;
+                for (int neighbor : neighbors(c)) {
+                    affected[neighbor] = true;
+                }
+                int col = c % clustersAcross;
+                if (col > 0) {
+                    borders[c - 1] = true;
+                }
+                if (c >= clustersAcross) {
+                    borders[c - clustersAcross] = true;
+                }
+            }
+        }
+        IntStream.range(0, clusters).parallel().filter(c -> borders[c]).forEach(c -> findBorderEntrances(maze, c));
+        int[] rebuild = IntStream.range(0, clusters).parallel().filter(c -> affected[c]).filter(c -> {
+            int[] cells = collectEntrances(c);
+            if (changed[c] || !Arrays.equals(cells, entrances[c])) {
+                entrances[c] = cells;
+                return true;
+            }
+            return false;
+        }).toArray();
+        Arrays.stream(rebuild).parallel().forEach(c -> distances[c] = entranceDistances(maze, c));
+        renumber();
+        mazeVersion = version;
+        rebuiltClusters = rebuild.length;
+        buildMillis = System.currentTimeMillis() - started;
+        return rebuild.length;
+    }
+
+    /**
+     * Returns true if the graph was computed from the maze's current obstacles.
+     *
+     * @param maze - the maze the graph was built from.
+     * @return false if the maze has changed since the graph was built or refreshed.
+     */
+    public boolean isCurrent(Maze maze) {
+        return maze.getVersion() == mazeVersion;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public int getClusterCount() {
+        return clustersAcross * clustersDown;
+    }
+
+    /**
+     * Returns the number of entrance cells, the nodes of the abstract graph.
+     *
+     * @return the number of abstract nodes.
+     */
+    public int getNodeCount() {
+        return firstNode[getClusterCount()];
+    }
+
+    /**
+     * Returns the time taken by the last build or refresh.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Returns the number of clusters computed by the last build or refresh.
+     *
+     * @return the number of clusters computed.
+     */
+    public int getRebuiltClusterCount() {
+        return rebuiltClusters;
+    }
+
+    int clusterOf(int cell) {
+        int row = cell / width;
+        int col = cell - row * width;
+        return (row / clusterSize) * clustersAcross + col / clusterSize;
+    }
+
+    int firstNode(int cluster) {
+        return firstNode[cluster];
+    }
+
+    int entranceCount(int cluster) {
+        return entrances[cluster].length;
+    }
+
+    int nodeCell(int cluster, int index) {
+        return entrances[cluster][index];
+    }
+
+    int clusterOfNode(int node) {
+        return nodeCluster[node];
+    }
+
+    int cellOfNode(int node) {
+        return nodeCell[node];
+    }
+
+    int intraDistance(int cluster, int from, int to) {
+        return distances[cluster][from * entrances[cluster].length + to];
+    }
+
+    int interFirst(int node) {
+        return interFirst[node];
+    }
+
+    int interTarget(int edge) {
+        return interTarget[edge];
+    }
+
+    /**
+     * Borrows idle search scratch, or makes new scratch if none is idle. Give it back with giveBack().
+     */
+    LocalSearch borrowLocalSearch() {
+        LocalSearch local = idleLocalSearches.poll();
+        return local != null ? local : new LocalSearch(clusterSize);
+    }
+
+    /**
+     * Gives back search scratch from borrowLocalSearch(), for later tasks and queries to reuse.
+     */
+    void giveBack(LocalSearch local) {
+        idleLocalSearches.offer(local);
+    }
+
+    private int[] neighbors(int cluster) {
+        int col = cluster % clustersAcross;
+        int row = cluster / clustersAcross;
+        int[] found = new int[4];
+        int count = 0;
+        if (row > 0) {
+            found[count++] = cluster - clustersAcross;
+        }
+        if (col + 1 < clustersAcross) {
+            found[count++] = cluster + 1;
+        }
+        if (row + 1 < clustersDown) {
+            found[count++] = cluster + clustersAcross;
+        }
+        if (col > 0) {
+            found[count++] = cluster - 1;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private long[] snapshot(Maze maze, int cluster) {
+        int rowStart = (cluster / clustersAcross) * clusterSize;
+        int colStart = (cluster % clustersAcross) * clusterSize;
+        int rows = Math.min(clusterSize, height - rowStart);
+        int cols = Math.min(clusterSize, width - colStart);
+        long[] bits = new long[(rows * cols + 63) >>> 6];
+        int bit = 0;
+        for (int row = rowStart; row < rowStart + rows; row++) {
+            for (int col = colStart; col < colStart + cols; col++, bit++) {
+                if (maze.isObstacle(row, col)) {
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Finds the entrances on a cluster's right and bottom borders.
+     */
+    private void findBorderEntrances(Maze maze, int cluster) {
+        int rowStart = (cluster / clustersAcross) * clusterSize;
+        int colStart = (cluster % clustersAcross) * clusterSize;
+        int rowEnd = Math.min(rowStart + clusterSize, height) - 1;
+        int colEnd = Math.min(colStart + clusterSize, width) - 1;
+
+        IntList found = new IntList();
+        if (colEnd + 1 < width) {
+            int runStart = -1;
+            for (int row = rowStart; row <= rowEnd + 1; row++) {
+                boolean open = row <= rowEnd && !maze.isObstacle(row, colEnd) && !maze.isObstacle(row, colEnd + 1);
+                if (open && runStart < 0) {
+                    runStart = row;
+                } else if (!open && runStart >= 0) {
+                    addRun(found, runStart, row - 1, colEnd, width);
+                    runStart = -1;
+                }
+            }
+        }
+        rightPairs[cluster] = found.toArray();
+
+        found.clear();
+        if (rowEnd + 1 < height) {
+            int runStart = -1;
+            for (int col = colStart; col <= colEnd + 1; col++) {
+                boolean open = col <= colEnd && !maze.isObstacle(rowEnd, col) && !maze.isObstacle(rowEnd + 1, col);
+                if (open && runStart < 0) {
+                    runStart = col;
+                } else if (!open && runStart >= 0) {
+                    addRun(found, rowEnd * width + runStart, rowEnd * width + col - 1, 0, 1);
+                    runStart = -1;
+                }
+            }
+        }
+        downPairs[cluster] = found.toArray();
+    }
+
+    /**
+     * Adds the entrance cells for a run of open border positions {@code first .. last},
+     * where position p is the cell {@code p * step + offset}.
+     */
+    private static void addRun(IntList found, int first, int last, int offset, int step) {
+        if (last - first + 1 >= LONG_ENTRANCE) {
+            found.add(first * step + offset);
+            found.add(last * step + offset);
+        } else {
+            found.add(((first + last) >>> 1) * step + offset);
+        }
+    }
+
+    private int[] collectEntrances(int cluster) {
+        IntList cells = new IntList();
+        for (int cell : rightPairs[cluster]) {
+            cells.add(cell);
+        }
+        for (int cell : downPairs[cluster]) {
+            cells.add(cell);
+        }
+        if (cluster % clustersAcross > 0) {
+            for (int cell : rightPairs[cluster - 1]) {
+                cells.add(cell + 1);
+            }
+        }
+        if (cluster >= clustersAcross) {
+            for (int cell : downPairs[cluster - clustersAcross]) {
+                cells.add(cell + width);
+            }
+        }
+        int[] sorted = cells.toArray();
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private int[] entranceDistances(Maze maze, int cluster) {
+        int[] cells = entrances[cluster];
+        int count = cells.length;
+        int[] table = new int[count * count];
+        LocalSearch local = borrowLocalSearch();
+        try {
+            for (int from = 0; from < count; from++) {
+                local.run(maze, this, cluster, cells[from]);
+                for (int to = 0; to < count; to++) {
+                    table[from * count + to] = local.distanceTo(cells[to]);
+                }
+            }
+        } finally {
+            giveBack(local);
+        }
+        return table;
+    }
+
+    /**
+     * Numbers the entrance cells of all clusters and links the cells across each border.
+     */
+    private void renumber() {
+        int clusters = getClusterCount();
+        firstNode = new int[clusters + 1];
+        for (int c = 0; c < clusters; c++) {
+            firstNode[c + 1] = firstNode[c] + entrances[c].length;
+        }
+        int nodes = firstNode[clusters];
+        nodeCluster = new int[nodes];
+        nodeCell = new int[nodes];
+        for (int c = 0; c < clusters; c++) {
+            Arrays.fill(nodeCluster, firstNode[c], firstNode[c + 1], c);
+            System.arraycopy(entrances[c], 0, nodeCell, firstNode[c], entrances[c].length);
+        }
+        int[] degree = new int[nodes + 1];
+        for (int c = 0; c < clusters; c++) {
+            for (int cell : rightPairs[c]) {
+                degree[node(c, cell)]++;
+                degree[node(c + 1, cell + 1)]++;
+            }
+            for (int cell : downPairs[c]) {
+                degree[node(c, cell)]++;
+                degree[node(c + clustersAcross, cell + width)]++;
+            }
+        }
+        interFirst = new int[nodes + 1];
+        for (int n = 0; n < nodes; n++) {
+            interFirst[n + 1] = interFirst[n] + degree[n];
+        }
+        interTarget = new int[interFirst[nodes]];
+        int[] next = Arrays.copyOf(interFirst, nodes);
+        for (int c = 0; c < clusters; c++) {
+            for (int cell : rightPairs[c]) {
+                link(next, node(c, cell), node(c + 1, cell + 1));
+            }
+            for (int cell : downPairs[c]) {
+                link(next, node(c, cell), node(c + clustersAcross, cell + width));
+            }
+        }
+    }
+
+    private void link(int[] next, int a, int b) {
+        interTarget[next[a]++] = b;
+        interTarget[next[b]++] = a;
+    }
+
+    private int node(int cluster, int cell) {
+        return firstNode[cluster] + Arrays.binarySearch(entrances[cluster], cell);
+    }
+
+    /**
+     * A Breadth First search confined to one cluster, with scratch arrays sized for one cluster.
+     */
+    static final class LocalSearch {
+        private final int[] distance;   // steps from the start + 1 by local index, 0 if not reached
+        private final byte[] reachedFrom;
+        private final int[] queue;
+        private int width;
+        private int rowStart;
+        private int colStart;
+        private int rows;
+        private int cols;
+        private int startCell;
+        private int expanded;
+
+        LocalSearch(int clusterSize) {
+            distance = new int[clusterSize * clusterSize];
+            reachedFrom = new byte[clusterSize * clusterSize];
+            queue = new int[clusterSize * clusterSize];
+        }
+
+        /**
+         * Finds the distance to every cell of a cluster reachable from a start cell without leaving the cluster.
+         */
+        void run(Maze maze, ClusterGraph graph, int cluster, int start) {
+            width = graph.width;
+            rowStart = (cluster / graph.clustersAcross) * graph.clusterSize;
+            colStart = (cluster % graph.clustersAcross) * graph.clusterSize;
+            rows = Math.min(graph.clusterSize, graph.height - rowStart);
+            cols = Math.min(graph.clusterSize, width - colStart);
+            startCell = start;
+            expanded = 0;
+            Arrays.fill(distance, 0, rows * cols, 0);
+
+            int first = local(start);
+            distance[first] = 1;
+            queue[0] = first;
+            int tail = 1;
+            for (int head = 0; head < tail; head++) {
+                int current = queue[head];
+                int row = current / cols;
+                int col = current - row * cols;
+                expanded++;
+                for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                    int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                    int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                    if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= cols
+                            || maze.isObstacle(rowStart + nextRow, colStart + nextCol)) {
+                        continue;
+                    }
+                    int next = nextRow * cols + nextCol;
+                    if (distance[next] == 0) {
+                        distance[next] = distance[current] + 1;
+                        reachedFrom[next] = (byte) (direction + 1);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the number of steps from the start of the last run to a cell of the same cluster.
+         *
+         * @return the number of steps, or UNREACHABLE.
+         */
+        int distanceTo(int cell) {
+            return distance[local(cell)] - 1;
+        }
+
+        /**
+         * Adds the cells from the start of the last run (not included) to a reachable cell (included) to a path.
+         */
+        void appendPath(int cell, List<Point> path) {
+            int end = path.size();
+            int current = local(cell);
+            int first = local(startCell);
+            while (current != first) {
+                int row = current / cols;
+                int col = current - row * cols;
+                path.add(new Point(rowStart + row, colStart + col));
+                int direction = reachedFrom[current] - 1;
+                current -= FlatBreadthFirstSearch.ROW_DELTAS[direction] * cols + FlatBreadthFirstSearch.COL_DELTAS[direction];
+            }
+            Collections.reverse(path.subList(end, path.size()));
+        }
+
+        int getExpandedCount() {
+            return expanded;
+        }
+
+        private int local(int cell) {
+            int row = cell / width;
+            int col = cell - row * width;
+            return (row - rowStart) * cols + (col - colStart);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A multi-Kiva planner using Conflict-Based Search (CBS), which finds collision free, time indexed paths
+ * for several Missions on one solver.Maze().
+ * <p>
+ * Every Kiva is first planned alone with a SpaceTimeSearch. The planner then looks for the earliest conflict,
+ * two Kivas in the same cell at the same timestep or swapping cells in one timestep, and splits:
+ * one branch forbids the first Kiva that cell or move at that time, the other forbids the second,
+ * and only the constrained Kiva is planned again in each branch. Branches are explored cheapest first,
+ * by the sum of the Kivas' arrival times and then by their number of conflicts,
+ * so the first branch without conflicts is an optimal plan.
+ * A Kiva that has finished stays at its drop zone, so missions should end at different cells.
+ * <p>
+ * The low-level searches of the first round, and of both branches of each split, run in parallel
+ * on a ForkJoinPool. Each search uses distance fields to its pod and drop zone as its heuristic.
+ * The planner keeps the SpaceTimeSearches it has used and lends an idle one to each low-level search,
+ * so there are never more of them than searches running at once.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0800
+ * @see Mission
+ * @see SpaceTimeSearch
+ * @see SpaceTimeConstraints
+ */
+public class ConflictBasedSearch {
+
+    /**
+     * The number of splits the planner tries before it gives up, when none is given.
+     */
+    public static final int DEFAULT_SPLIT_LIMIT = 10000;
+
+    private final ForkJoinPool pool;
+    private final int splitLimit;
+    private final ConcurrentLinkedQueue<SpaceTimeSearch> idleSearches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The result of a ConflictBasedSearch: the paths, their cost and how much work they took.
+     */
+    public static class Plan {
+        private final List<List<Point>> paths;
+        private final int cost;
+        private final int conflictsResolved;
+        private final long wallMillis;
+
+        Plan(List<List<Point>> paths, int cost, int conflictsResolved, long wallMillis) {
+            this.paths = paths;
+            this.cost = cost;
+            this.conflictsResolved = conflictsResolved;
+            this.wallMillis = wallMillis;
+        }
+
+        /**
+         * Returns one time indexed path per mission, in the order the missions were given.
+         * Element {@code t} of a path is the Kiva's location at timestep {@code t};
+         * after its path ends the Kiva stays at its last location.
+         *
+         * @return the paths, empty if no collision free plan was found.
+         */
+        public List<List<Point>> getPaths() {
+            return paths;
+        }
+
+        /**
+         * Returns the sum of the timesteps at which the Kivas reach their drop zones for good.
+         *
+         * @return the cost of the plan, or -1 if no plan was found.
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * Returns the number of conflicts split while planning.
+         *
+         * @return the number of conflicts resolved.
+         */
+        public int getConflictsResolved() {
+            return conflictsResolved;
+        }
+
+        /**
+         * Returns the time taken to plan.
+         *
+         * @return the wall clock time in milliseconds.
+         */
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        /**
+         * Returns true if a collision free plan was found.
+         *
+         * @return true if the plan is usable.
+         */
+        public boolean isSolved() {
+            return cost >= 0;
+        }
+    }
+
+    /**
+     * Creates a ConflictBasedSearch that runs on the common ForkJoinPool with the default split limit.
+     */
+    public ConflictBasedSearch() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_LIMIT);
+    }
+
+    /**
+     * Creates a ConflictBasedSearch.
+     *
+     * @param pool       - the pool the low-level searches run on.
+     * @param splitLimit - the number of conflicts to split before giving up.
+     */
+    public ConflictBasedSearch(ForkJoinPool pool, int splitLimit) {
+        if (splitLimit < 0) {
+            throw new IllegalArgumentException("split limit must not be negative (was " + splitLimit + ")");
+        }
+        this.pool = pool;
+        this.splitLimit = splitLimit;
+    }
+
+    /**
+     * Plans all missions together.
+     *
+     * @param maze     - a floor map in solver.Maze format.
+     * @param missions - one mission per Kiva.
+     * @return the Plan found, check isSolved().
+     */
+    public Plan plan(Maze maze, List<Mission> missions) {
+        long started = System.currentTimeMillis();
+        final int agents = missions.size();
+        final int cells = maze.getCellCount();
+
+        final DistanceField[] toPod = new DistanceField[agents];
+        final DistanceField[] toDrop = new DistanceField[agents];
+        List<ForkJoinTask<?>> fieldTasks = new ArrayList<>();
+        for (int agent = 0; agent < agents; agent++) {
+            final int a = agent;
+            Mission mission = missions.get(agent);
+            if (mission.hasPod()) {
+                fieldTasks.add(pool.submit(() -> { toPod[a] = DistanceField.compute(maze, mission.getPod()); }));
+            }
+            fieldTasks.add(pool.submit(() -> { toDrop[a] = DistanceField.compute(maze, mission.getDropZone()); }));
+        }
+        fieldTasks.forEach(ForkJoinTask::join);
+
+        List<ForkJoinTask<int[]>> rootTasks = new ArrayList<>();
+        for (int agent = 0; agent < agents; agent++) {
+            final int a = agent;
+            rootTasks.add(pool.submit(() -> searchCells(maze, missions.get(a), SpaceTimeConstraints.NONE,
+                    toPod[a], toDrop[a])));
+        }
+        int[][] rootPaths = new int[agents][];
+        for (int agent = 0; agent < agents; agent++) {
+            rootPaths[agent] = rootTasks.get(agent).join();
+            if (rootPaths[agent] == null) {
+                return failed(started, 0);
+            }
+        }
+
+        PriorityQueue<Branch> branches = new PriorityQueue<>();
+        long sequence = 0;
+        branches.add(new Branch(rootPaths, null, sequence++));
+        int splits = 0;
+        while (!branches.isEmpty()) {
+            Branch branch = branches.poll();
+            int[] conflict = branch.firstConflict;
+            if (branch.conflicts == 0) {
+                return solved(maze, branch, started, splits);
+            }
+            if (splits == splitLimit) {
+                break;
+            }
+            splits++;
+
+            // conflict is {agent, other agent, time, cell, other cell}; other cell is NONE for a cell conflict
+            final int time = conflict[2];
+            final Constraint[] added = new Constraint[2];
+            added[0] = new Constraint(conflict[0], conflict[4] == Constraint.NONE ? Constraint.NONE : conflict[3],
+                    conflict[4] == Constraint.NONE ? conflict[3] : conflict[4], time, branch.constraints);
+            added[1] = new Constraint(conflict[1], conflict[4] == Constraint.NONE ? Constraint.NONE : conflict[4],
+                    conflict[3], time, branch.constraints);
+            List<ForkJoinTask<int[]>> childTasks = new ArrayList<>(2);
+            for (Constraint constraint : added) {
+                final int a = constraint.agent;
+                final AgentConstraints forAgent = new AgentConstraints(a, constraint, cells, maze.getWidth());
+                childTasks.add(pool.submit(() -> searchCells(maze, missions.get(a), forAgent, toPod[a], toDrop[a])));
+            }
+            for (int i = 0; i < added.length; i++) {
+                int[] replanned = childTasks.get(i).join();
+                if (replanned != null) {
+                    int[][] paths = branch.paths.clone();
+                    paths[added[i].agent] = replanned;
+                    branches.add(new Branch(paths, added[i], sequence++));
+                }
+            }
+        }
+        return failed(started, splits);
+    }
+
+    /**
+     * Plans one Kiva from timestep 0 with an idle SpaceTimeSearch for the maze, borrowed from the planner
+     * and returned afterwards, so its scratch is reused by later searches and later plans.
+     * Idle searches for another maze are dropped.
+     */
+    private int[] searchCells(Maze maze, Mission mission, SpaceTimeConstraints constraints,
+                              DistanceField toPod, DistanceField toDrop) {
+        SpaceTimeSearch search = idleSearches.poll();
+        while (search != null && !search.isFor(maze)) {
+            search = idleSearches.poll();
+        }
+        if (search == null) {
+            search = new SpaceTimeSearch(maze);
+        }
+        try {
+            return search.searchCells(mission, 0, constraints, toPod, toDrop);
+        } finally {
+            idleSearches.offer(search);
+        }
+    }
+
+    /**
+     * Finds the conflicts between paths, earliest first.
+     *
+     * @return the number of conflicts, with the earliest in first as
+     * {agent, other agent, time, cell, other cell}, or 0 if there are none.
+     */
+    private static int countConflicts(int[][] paths, int[] first) {
+        int end = 0;
+        for (int[] path : paths) {
+            end = Math.max(end, path.length);
+        }
+        int count = 0;
+        LongIntMap occupied = new LongIntMap(paths.length * 2);
+        for (int time = 0; time < end; time++) {
+            occupied.clear();
+            for (int agent = 0; agent < paths.length; agent++) {
+                int cell = at(paths[agent], time);
+                int other = occupied.get(cell, Constraint.NONE);
+                if (other != Constraint.NONE) {
+                    if (count++ == 0) {
+                        set(first, other, agent, time, cell, Constraint.NONE);
+                    }
+                } else {
+                    occupied.put(cell, agent);
+                }
+            }
+            if (time == 0) {
+                continue;
+            }
+            // a swap: this agent moves from a to b while the agent that was at b moves to a
+            for (int agent = 0; agent < paths.length; agent++) {
+                int from = at(paths[agent], time - 1);
+                int to = at(paths[agent], time);
+                if (from == to) {
+                    continue;
+                }
+                int other = occupied.get(from, Constraint.NONE);
+                if (other != Constraint.NONE && other < agent && at(paths[other], time - 1) == to
+                        && at(paths[other], time) == from) {
+                    if (count++ == 0) {
+                        set(first, agent, other, time, from, to);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void set(int[] conflict, int agent, int other, int time, int cell, int otherCell) {
+        conflict[0] = agent;
+        conflict[1] = other;
+        conflict[2] = time;
+        conflict[3] = cell;
+        conflict[4] = otherCell;
+    }
+
+    private static int at(int[] path, int time) {
+        return path[Math.min(time, path.length - 1)];
+    }
+
+    private static int cost(int[][] paths) {
+        int cost = 0;
+        for (int[] path : paths) {
+            cost += path.length - 1;
+        }
+        return cost;
+    }
+
+    private Plan solved(Maze maze, Branch branch, long started, int splits) {
+        SpaceTimeSearch converter = new SpaceTimeSearch(maze);
+        List<List<Point>> paths = new ArrayList<>(branch.paths.length);
+        for (int[] path : branch.paths) {
+            paths.add(converter.toPoints(path));
+        }
+        return new Plan(paths, branch.cost, splits, System.currentTimeMillis() - started);
+    }
+
+    private static Plan failed(long started, int splits) {
+        return new Plan(Collections.<List<Point>>emptyList(), -1, splits, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * One node of the constraint tree: the constraints added so far and the paths that satisfy them.
+     */
+    private static final class Branch implements Comparable<Branch> {
+        final int[][] paths;
+        final Constraint constraints;
+        final int cost;
+        final int conflicts;
+        final int[] firstConflict = new int[5];
+        final long sequence;
+
+        Branch(int[][] paths, Constraint constraints, long sequence) {
+            this.paths = paths;
+            this.constraints = constraints;
+            this.cost = cost(paths);
+            this.conflicts = countConflicts(paths, firstConflict);
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Branch other) {
+            if (cost != other.cost) {
+                return Integer.compare(cost, other.cost);
+            }
+            if (conflicts != other.conflicts) {
+                return Integer.compare(conflicts, other.conflicts); // closer to a plan without conflicts
+            }
+            return Long.compare(other.sequence, sequence); // newer, deeper branches first
+        }
+    }
+
+    /**
+     * A constraint on one Kiva, linked to the constraints of the parent branch.
+     * A cell constraint has fromCell NONE; a move constraint forbids moving fromCell to toCell.
+     */
+    private static final class Constraint {
+        static final int NONE = -1;
+
+        final int agent;
+        final int fromCell;
+        final int toCell;
+        final int time;
+        final Constraint parent;
+
+        Constraint(int agent, int fromCell, int toCell, int time, Constraint parent) {
+            this.agent = agent;
+            this.fromCell = fromCell;
+            this.toCell = toCell;
+            this.time = time;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * The constraints of a branch that apply to one Kiva, indexed for the low-level search.
+     */
+    private static final class AgentConstraints implements SpaceTimeConstraints {
+        private static final long NOT_A_MOVE = -1;
+
+        private final long cells;
+        private final int width;
+        private final LongIntMap blockedCells = new LongIntMap();
+        private final LongIntMap blockedMoves = new LongIntMap();
+        private final LongIntMap lastBlocked = new LongIntMap();
+        private final LongIntMap lastConstrained = new LongIntMap();
+        private int horizon = -1;
+
+        AgentConstraints(int agent, Constraint constraints, int cells, int width) {
+            this.cells = cells;
+            this.width = width;
+            for (Constraint constraint = constraints; constraint != null; constraint = constraint.parent) {
+                if (constraint.agent != agent) {
+                    continue;
+                }
+                horizon = Math.max(horizon, constraint.time);
+                if (constraint.fromCell == Constraint.NONE) {
+                    blockedCells.put(constraint.time * this.cells + constraint.toCell, 1);
+                    int last = lastBlocked.get(constraint.toCell, -1);
+                    lastBlocked.put(constraint.toCell, Math.max(last, constraint.time));
+                } else {
+                    long key = moveKey(constraint.fromCell, constraint.toCell, constraint.time);
+                    if (key == NOT_A_MOVE) {
+                        throw new IllegalStateException("move constraint between cells " + constraint.fromCell
+                                + " and " + constraint.toCell + " that are not neighbors");
+                    }
+                    blockedMoves.put(key, 1);
+                    touch(constraint.fromCell, constraint.time);
+                }
+                touch(constraint.toCell, constraint.time);
+            }
+        }
+
+        @Override
+        public boolean isCellBlocked(int cell, int time) {
+            return time <= horizon && blockedCells.get(time * cells + cell, 0) != 0;
+        }
+
+        @Override
+        public boolean isMoveBlocked(int fromCell, int toCell, int time) {
+            if (time > horizon) {
+                return false;
+            }
+            long key = moveKey(fromCell, toCell, time);
+            return key != NOT_A_MOVE && blockedMoves.get(key, 0) != 0;
+        }
+
+        @Override
+        public int getLastBlockedTime(int cell) {
+            return lastBlocked.get(cell, -1);
+        }
+
+        @Override
+        public int getLastConstrainedTime(int cell) {
+            return lastConstrained.get(cell, -1);
+        }
+
+        @Override
+        public int getHorizon() {
+            return horizon;
+        }
+
+        private void touch(int cell, int time) {
+            lastConstrained.put(cell, Math.max(lastConstrained.get(cell, -1), time));
+        }
+
+        /**
+         * Keys a move by its timestep, the cell it leaves and its direction (see FlatBreadthFirstSearch),
+         * which stays far below Long.MAX_VALUE on any floor, or returns NOT_A_MOVE if the cells are not neighbors.
+         */
+        private long moveKey(int fromCell, int toCell, int time) {
+            int delta = toCell - fromCell;
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                if (FlatBreadthFirstSearch.ROW_DELTAS[direction] * width
+                        + FlatBreadthFirstSearch.COL_DELTAS[direction] == delta) {
+                    return (time * cells + fromCell) * FlatBreadthFirstSearch.ROW_DELTAS.length + direction;
+                }
+            }
+            return NOT_A_MOVE;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Tells whether locations on a solver.Maze() are connected, without finding a path between them.
+ * <p>
+ * One pass over the map, row by row, splits each row into runs of open cells, found a word at a time in the
+ * open-cell bits (see Maze.copyOpenRows()), and joins each run to the runs it touches in the row above in a
+ * union-find (disjoint set) forest. Afterwards two cells are connected exactly when their runs have the same root.
+ * The pass is linear in the size of the map, but the forest only has a node per run, not per cell,
+ * so it is a cheap way to accept or reject a map, for example a random map from CreateMap, before solving it.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0400
+ * @see CreateMap#randomMapString()
+ * @see Maze
+ */
+public final class Connectivity {
+
+    private static final int NONE = -1;
+
+    private final int width;
+    private final int wordsPerRow;
+    private final long[] open;
+    private int[] parent = new int[64];     // the union-find forest, one node per run
+    private int runs = 0;
+
+    // the runs of the row above and of this row: first column, column after the last, and node
+    private int[] aboveStart = new int[16];
+    private int[] aboveEnd = new int[16];
+    private int[] aboveNode = new int[16];
+    private int aboveCount = 0;
+    private int[] rowStart = new int[16];
+    private int[] rowEnd = new int[16];
+    private int[] rowNode = new int[16];
+    private int rowCount = 0;
+
+    private Connectivity(Maze maze) {
+        width = maze.getWidth();
+        wordsPerRow = (width + 63) >>> 6;
+        open = new long[maze.getHeight() * wordsPerRow];
+        maze.copyOpenRows(wordsPerRow, open);
+    }
+
+    /**
+     * Tells whether the Kiva can reach the pod and then the drop zone, or the drop zone if the map has no pod,
+     * which is when Solver.solve() finds a solution.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @return true if the Kiva, the pod and the drop zone are in the same open area.
+     */
+    public static boolean isSolvable(Maze maze) {
+        if (maze.getInitialKivaLocation() == null || maze.getDropZoneLocation() == null) {
+            return false;
+        }
+        if (maze.getPodLocation() == null) {
+            return isConnected(maze, maze.getInitialKivaLocation(), maze.getDropZoneLocation());
+        }
+        return isConnected(maze, maze.getInitialKivaLocation(), maze.getPodLocation(), maze.getDropZoneLocation());
+    }
+
+    /**
+     * Tells whether every location can be reached from every other one by moving up, down, left and right
+     * through open cells.
+     *
+     * @param maze      - a floor map in solver.Maze format.
+     * @param locations - the location points (row, col) to check.
+     * @return true if all the locations are open and in the same open area.
+     */
+    public static boolean isConnected(Maze maze, Point... locations) {
+        for (Point location : locations) {
+            if (!maze.isValidLocation(location.getX(), location.getY()) || maze.isObstacle(location.getX(), location.getY())) {
+                return false;
+            }
+        }
+        if (locations.length < 2) {
+            return true;
+        }
+        return new Connectivity(maze).connects(maze.getHeight(), locations);
+    }
+
+    /**
+     * Builds the forest one row at a time, stopping once the runs of every location are joined.
+     */
+    private boolean connects(int height, Point[] locations) {
+        int[] nodes = new int[locations.length];
+        int lastRow = 0;
+        for (Point location : locations) {
+            lastRow = Math.max(lastRow, location.getX());
+        }
+        for (int row = 0; row < height; row++) {
+            readRuns(row);
+            joinAbove();
+            for (int i = 0; i < locations.length; i++) {
+                if (locations[i].getX() == row) {
+                    nodes[i] = runAt(locations[i].getY());
+                }
+            }
+            if (row >= lastRow && allJoined(nodes)) {
+                return true; // later rows can only join more runs
+            }
+            swapRows();
+        }
+        return false;
+    }
+
+    private boolean allJoined(int[] nodes) {
+        int root = find(nodes[0]);
+        for (int i = 1; i < nodes.length; i++) {
+            if (find(nodes[i]) != root) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits a row into runs of open cells and gives each run a new node.
+     */
+    private void readRuns(int row) {
+        rowCount = 0;
+        int base = row * wordsPerRow;
+        int col = nextBit(base, 0, true);
+        while (col < width) {
+            int end = Math.min(width, nextBit(base, col, false));
+            if (rowCount == rowStart.length) {
+                rowStart = Arrays.copyOf(rowStart, rowCount * 2);
+                rowEnd = Arrays.copyOf(rowEnd, rowCount * 2);
+                rowNode = Arrays.copyOf(rowNode, rowCount * 2);
+            }
+            if (runs == parent.length) {
+                parent = Arrays.copyOf(parent, runs * 2);
+            }
+            parent[runs] = runs;
+            rowStart[rowCount] = col;
+            rowEnd[rowCount] = end;
+            rowNode[rowCount] = runs++;
+            rowCount++;
+            col = end < width ? nextBit(base, end, true) : width;
+        }
+    }
+
+    /**
+     * Joins each run of this row to the runs of the row above that share a column with it.
+     */
+    private void joinAbove() {
+        int above = 0;
+        for (int run = 0; run < rowCount; run++) {
+            while (above < aboveCount && aboveEnd[above] <= rowStart[run]) {
+                above++;
+            }
+            for (int touching = above; touching < aboveCount && aboveStart[touching] < rowEnd[run]; touching++) {
+                union(aboveNode[touching], rowNode[run]);
+            }
+        }
+    }
+
+    private int runAt(int col) {
+        for (int run = 0; run < rowCount; run++) {
+            if (rowStart[run] <= col && col < rowEnd[run]) {
+                return rowNode[run];
+            }
+        }
+        return NONE;
+    }
+
+    private void swapRows() {
+        int[] swap = aboveStart;
+        aboveStart = rowStart;
+        rowStart = swap;
+        swap = aboveEnd;
+        aboveEnd = rowEnd;
+        rowEnd = swap;
+        swap = aboveNode;
+        aboveNode = rowNode;
+        rowNode = swap;
+        aboveCount = rowCount;
+    }
+
+    /**
+     * Returns the first column at or after from that is open, or closed if set is false,
+     * or a column at or past the end of the row if there is none.
+     */
+    private int nextBit(int base, int from, boolean set) {
+        int word = from >>> 6;
+        long bits = (set ? open[base + word] : ~open[base + word]) & (-1L << from);
+        while (bits == 0) {
+            if (++word == wordsPerRow) {
+                return wordsPerRow << 6;
+            }
+            bits = set ? open[base + word] : ~open[base + word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Joins the sets of two nodes, the root with the higher number pointing to the lower.
+     */
+    private void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot < secondRoot) {
+            parent[secondRoot] = firstRoot;
+        } else if (secondRoot < firstRoot) {
+            parent[firstRoot] = secondRoot;
+        }
+    }
+
+    /**
+     * Returns the root of a node's set, halving the path on the way.
+     */
+    private int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+}
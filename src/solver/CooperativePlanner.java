@@ -0,0 +1,112 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A cooperative, prioritized planner (Cooperative A*) for many Kivas sharing a solver.Maze().
+ * <p>
+ * Kivas are planned one at a time with a SpaceTimeSearch. Each path, waits included, is written to a
+ * ReservationTable, and every Kiva planned later plans around those reservations.
+ * This is much cheaper than ConflictBasedSearch, since every Kiva is searched once,
+ * but the plan is not always optimal and a Kiva planned late may find no path.
+ * <p>
+ * Kivas are numbered from 0. planAll() plans a batch in order, first parking every Kiva at its start,
+ * since a Kiva that has not been planned yet is not going anywhere. plan() replans a single Kiva,
+ * for example when it is given a new mission, and advance() lets old reservations expire as time moves on.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.2000
+ * @see ReservationTable
+ * @see SpaceTimeSearch
+ * @see ConflictBasedSearch
+ */
+public class CooperativePlanner {
+
+    private final ReservationTable table;
+    private final SpaceTimeSearch search;
+
+    /**
+     * Creates a CooperativePlanner whose searches use the Manhattan distance as their heuristic.
+     *
+     * @param maze - the floor map the Kivas share.
+     */
+    public CooperativePlanner(Maze maze) {
+        this(maze, null);
+    }
+
+    /**
+     * Creates a CooperativePlanner whose searches use distance fields from a cache as their heuristic,
+     * which pays off when many missions share a few pods or drop zones.
+     *
+     * @param maze           - the floor map the Kivas share.
+     * @param distanceFields - the cache of distance fields, or null for the Manhattan distance.
+     */
+    public CooperativePlanner(Maze maze, DistanceFieldCache distanceFields) {
+        this.table = new ReservationTable(maze);
+        this.search = new SpaceTimeSearch(maze, distanceFields);
+    }
+
+    /**
+     * Plans one Kiva around the reservations of all the others, and reserves its path if one is found.
+     *
+     * @param robot     - the Kiva's number, from 0.
+     * @param mission   - the Kiva's start, pod and drop zone.
+     * @param startTime - the timestep the Kiva is at its start.
+     * @return the time indexed path, or an empty List if none was found, in which case the Kiva's
+     * previous reservations are kept.
+     */
+    public List<Point> plan(int robot, Mission mission, int startTime) {
+        List<Point> path = search.search(mission, startTime, table.constraintsFor(robot));
+        if (!path.isEmpty()) {
+            table.reserve(robot, path, startTime);
+        }
+        return path;
+    }
+
+    /**
+     * Plans a batch of Kivas in priority order, Kiva i having mission i.
+     *
+     * @param missions  - one mission per Kiva, highest priority first.
+     * @param startTime - the timestep every Kiva is at its start.
+     * @return one time indexed path per Kiva, empty for a Kiva no path was found for.
+     */
+    public List<List<Point>> planAll(List<Mission> missions, int startTime) {
+        for (int robot = 0; robot < missions.size(); robot++) {
+            table.reserve(robot, Collections.singletonList(missions.get(robot).getStart()), startTime);
+        }
+        List<List<Point>> paths = new ArrayList<>(missions.size());
+        for (int robot = 0; robot < missions.size(); robot++) {
+            paths.add(plan(robot, missions.get(robot), startTime));
+        }
+        return paths;
+    }
+
+    /**
+     * Moves time forward, expiring every reservation before the given timestep.
+     *
+     * @param now - the current timestep.
+     */
+    public void advance(int now) {
+        table.advance(now);
+    }
+
+    /**
+     * Returns the table of reservations made so far.
+     *
+     * @return the ReservationTable.
+     */
+    public ReservationTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the number of states expanded by the last plan.
+     *
+     * @return the number of states expanded.
+     */
+    public int getExpandedCount() {
+        return search.getExpandedCount();
+    }
+}
@@ -4,23 +4,43 @@ import kivaworld.FloorMap;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Random;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
 
 /**
  * Creates a Kiva FloorMap
  * This can be a random map, or a default map as a string or FloorMap
+ * Random maps are drawn into a bitset and written a row at a time, so large maps can be written
+ * straight to a file with saveRandomMap() or writeRandomMap().
+ * With setCarveCorridors(true), maps are solvable by construction instead of by generating until one is.
+ * <p>
+ * Every map is made from its own seed with a java.util.SplittableRandom, so a map can be made again from its seed
+ * (see getLastSeed()), and a batch of maps can be generated in parallel with randomMapStrings() and come out
+ * the same whatever the number of threads. saveRandomBinaryMap() records the seed in the file (see BinaryMap),
+ * saveRandomMap() and saveFile(String, long) record it in a seed file next to the text map, and readSeed() reads
+ * it back from either.
+ * A CreateMap is not thread-safe, but randomMapStrings() uses several threads itself.
  *
  * @author StephanPeters (speters33w)
- * @version 20220704.1100
+ * @version 20261018.0800
  */
 public class CreateMap {
-    private final facingDirection[] directions = facingDirection.values();
-    Random random = new Random();
-    private final LinkedList<Point> obstacles = new LinkedList<>();
+    private static final facingDirection[] DIRECTIONS = facingDirection.values();
+    private final SplittableRandom seeds;
+    private long lastSeed;
+    private boolean carveCorridors = false;
 
     enum facingDirection {
         UP(new Point(0, -1)),
@@ -35,6 +55,35 @@ public class CreateMap {
         }
     }
 
+    /**
+     * Creates a CreateMap whose maps have random seeds. The seed of each map can be read with getLastSeed().
+     */
+    public CreateMap() {
+        seeds = new SplittableRandom();
+    }
+
+    /**
+     * Creates a CreateMap whose maps come from a seed, so the same seed gives the same maps in the same order.
+     *
+     * @param seed The seed the seed of each map is drawn from.
+     */
+    public CreateMap(long seed) {
+        seeds = new SplittableRandom(seed);
+    }
+
+    /**
+     * Selects how random maps are made solvable.
+     * When true, a corridor is carved from the Kiva to the pod and from the pod to the drop zone first,
+     * and walls are only drawn across the rest of the map, so every map is solvable as generated and
+     * takes the same time to make whatever its obstacle ratio. When false, the default,
+     * randomMapString() generates maps until one is solvable.
+     *
+     * @param carveCorridors true to make every map solvable by construction.
+     */
+    public void setCarveCorridors(boolean carveCorridors) {
+        this.carveCorridors = carveCorridors;
+    }
+
     /**
      * public static default floor map, returns as a String
      * Can be accessed to print the default map, or whatever.
@@ -54,12 +103,154 @@ public class CreateMap {
 
     /**
      * Create a random map (String) that can be used with FloorMap
+     * The map's seed is drawn from this CreateMap's generator, see getLastSeed().
      *
      * @param mapWidth  Width (x, col) of the map.
      * @param mapHeight Height (y, row) of the map.
      * @return The generated map in String format.
      */
     public String randomMapString(int mapWidth, int mapHeight) {
+        long seed = nextSeed();
+        System.out.println("Width = " + mapWidth + " Height = " + mapHeight + " Seed = " + seed);
+        return toMapString(generate(mapWidth, mapHeight, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Creates a random map and saves it to a file, for maps too large to hold as a String.
+     * The map's seed is drawn from this CreateMap's generator, see getLastSeed().
+     * A text map has no room for the seed without breaking FloorMap, so it is saved next to the map
+     * in a seed file (see seedFile()) and can be read back with readSeed().
+     *
+     * @param mapWidth  Width (x, col) of the map.
+     * @param mapHeight Height (y, row) of the map.
+     * @param file      The file to write.
+     * @throws IOException if the file can not be written.
+     */
+    public void saveRandomMap(int mapWidth, int mapHeight, File file) throws IOException {
+        long seed = nextSeed();
+        try (Writer out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            writeRandomMap(mapWidth, mapHeight, seed, out);
+        }
+        writeSeedFile(file, seed);
+    }
+
+    /**
+     * Returns the seed file of a text map: the map's file name with {@code .seed} added,
+     * holding the seed the map was generated from as a decimal number.
+     *
+     * @param map - the text map file.
+     * @return the seed file, which may not exist.
+     */
+    public static File seedFile(File map) {
+        return new File(map.getPath() + ".seed");
+    }
+
+    /**
+     * Returns the seed a saved map was generated from, read from a binary map's header (see BinaryMap.getSeed())
+     * or from a text map's seed file (see seedFile()).
+     *
+     * @param map - the map file, text or binary.
+     * @return the seed, or an empty OptionalLong if none was recorded.
+     * @throws IOException if the map or its seed file can not be read, or the seed file does not hold a number.
+     */
+    public static OptionalLong readSeed(File map) throws IOException {
+        if (BinaryMap.isBinaryMap(map)) {
+            return BinaryMap.getSeed(map);
+        }
+        File seedFile = seedFile(map);
+        if (!seedFile.isFile()) {
+            return OptionalLong.empty();
+        }
+        String seed = new String(Files.readAllBytes(seedFile.toPath()), StandardCharsets.US_ASCII).trim();
+        try {
+            return OptionalLong.of(Long.parseLong(seed));
+        } catch (NumberFormatException e) {
+            throw new IOException(seedFile + " does not hold a seed (was \"" + seed + "\")", e);
+        }
+    }
+
+    private static void writeSeedFile(File map, long seed) throws IOException {
+        Files.write(seedFile(map).toPath(), (seed + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Creates a random map and saves it as a binary map (see BinaryMap), with its seed recorded in the file.
+     * The map goes straight from the generator's obstacle bits into the file, it is never held as text.
+     * The map's seed is drawn from this CreateMap's generator, see getLastSeed().
+     *
+     * @param mapWidth  Width (x, col) of the map.
+     * @param mapHeight Height (y, row) of the map.
+     * @param file      The file to write.
+     * @throws IOException if the file can not be written.
+     */
+    public void saveRandomBinaryMap(int mapWidth, int mapHeight, File file) throws IOException {
+        long seed = nextSeed();
+        BinaryMap.save(toMaze(generate(mapWidth, mapHeight, new SplittableRandom(seed))), file, seed);
+    }
+
+    /**
+     * Creates a random map and writes it to a Writer, one row at a time, see writeRandomMap(int, int, long, Writer).
+     * The map's seed is drawn from this CreateMap's generator, see getLastSeed().
+     *
+     * @param mapWidth  Width (x, col) of the map, at least 3.
+     * @param mapHeight Height (y, row) of the map, at least 4.
+     * @param out       The Writer the map is written to.
+     * @throws IOException              if the Writer fails.
+     * @throws IllegalArgumentException if the map is too small to hold a Kiva, a pod and a drop zone.
+     */
+    public void writeRandomMap(int mapWidth, int mapHeight, Writer out) throws IOException {
+        writeRandomMap(mapWidth, mapHeight, nextSeed(), out);
+    }
+
+    /**
+     * Creates a random map from a seed and writes it to a Writer, one row at a time.
+     * <p>
+     * Obstacle walls are drawn straight into a bitset of the map, one bit per cell, so generating a map
+     * takes time in proportion to its size, and the map is written row by row from the bitset,
+     * so it is never held as text. If corridors are carved (see setCarveCorridors()) the map is always solvable.
+     * The same size and seed always give the same map. The Writer is not closed.
+     *
+     * @param mapWidth  Width (x, col) of the map, at least 3.
+     * @param mapHeight Height (y, row) of the map, at least 4.
+     * @param seed      The seed of the map.
+     * @param out       The Writer the map is written to.
+     * @throws IOException              if the Writer fails.
+     * @throws IllegalArgumentException if the map is too small to hold a Kiva, a pod and a drop zone.
+     */
+    public void writeRandomMap(int mapWidth, int mapHeight, long seed, Writer out) throws IOException {
+        writeLayout(generate(mapWidth, mapHeight, new SplittableRandom(seed)), out);
+    }
+
+    /**
+     * A generated map: its size, obstacle bits in Maze's layout, frame included, and PKD Points (x = col, y = row - 1).
+     */
+    private static final class Layout {
+        final int width;
+        final int height;
+        final long[] obstacles;
+        final Point pod;
+        final Point kiva;
+        final Point drop;
+
+        Layout(int width, int height, long[] obstacles, Point pod, Point kiva, Point drop) {
+            this.width = width;
+            this.height = height;
+            this.obstacles = obstacles;
+            this.pod = pod;
+            this.kiva = kiva;
+            this.drop = drop;
+        }
+    }
+
+    /**
+     * Generates one map, which may not be solvable unless corridors are carved.
+     * Every random number comes from the given generator, so the map only depends on its seed.
+     */
+    private Layout generate(int mapWidth, int mapHeight, SplittableRandom random) {
+        if (mapWidth < 3 || mapHeight < 4 || (long) (mapWidth - 2) * (mapHeight - 3) < 3) {
+            throw new IllegalArgumentException("map of " + mapWidth + " x " + mapHeight
+                    + " is too small for a Kiva, a pod and a drop zone");
+        }
         Point pod = new Point();
         Point kiva = new Point();
         Point drop = new Point();
@@ -71,106 +262,240 @@ public class CreateMap {
             drop.move(random.nextInt(mapWidth - 2) + 1, random.nextInt(mapHeight - 3) + 1);
         } while (pod.equals(kiva) || drop.equals(pod) || kiva.equals(drop));
 
-           // Create obstacles over a random % from 15 to 20% of usable map area
-            for (int obstaclesLeft = ((mapWidth - 2) * (mapHeight - 2) * (random.nextInt(10) + 15)) / 100; obstaclesLeft > 0; ) {
+        long[] corridors = null;
+        if (carveCorridors) {
+            corridors = new long[(int) (((long) mapWidth * mapHeight + 63) >>> 6)];
+            carveCorridor(kiva, pod, mapWidth, corridors, random);
+            carveCorridor(pod, drop, mapWidth, corridors, random);
+        }
+        long[] obstacles = drawObstacles(mapWidth, mapHeight, corridors, random);
+        // The frame is obstacles too, and the PKD are written over any obstacle under them
+        for (int col = 0; col < mapWidth; col++) {
+            setBit(obstacles, col, true);
+            setBit(obstacles, (long) (mapHeight - 1) * mapWidth + col, true);
+        }
+        for (int row = 1; row < mapHeight - 1; row++) {
+            setBit(obstacles, (long) row * mapWidth, true);
+            setBit(obstacles, (long) row * mapWidth + mapWidth - 1, true);
+        }
+        for (Point pkd : new Point[]{pod, kiva, drop}) {
+            setBit(obstacles, (long) (pkd.getY() + 1) * mapWidth + pkd.getX(), false);
+        }
+        return new Layout(mapWidth, mapHeight, obstacles, pod, kiva, drop);
+    }
 
-                // Randomly decide in which direction to build an obstacle wall.
-                facingDirection direction = directions[random.nextInt(directions.length)];
-                int obstacleLength = 1;
+    private static void setBit(long[] bits, long bit, boolean value) {
+        if (value) {
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        } else {
+            bits[(int) (bit >>> 6)] &= ~(1L << bit);
+        }
+    }
 
-                // Randomly decide how long the wall will be.
-                if (direction == facingDirection.UP || direction == facingDirection.DOWN) {
-                    obstacleLength = random.nextInt(mapHeight - 2) + 1;
+    private static String toMapString(Layout layout) {
+        StringWriter map = new StringWriter((layout.width + 1) * layout.height);
+        try {
+            writeLayout(layout, map);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringWriter does not throw
+        }
+        return map.toString();
+    }
+
+    /**
+     * Writes the map frame with the obstacles and the PKD, one row at a time.
+     */
+    private static void writeLayout(Layout layout, Writer out) throws IOException {
+        int mapWidth = layout.width;
+        int mapHeight = layout.height;
+        long[] obstacles = layout.obstacles;
+        char[] line = new char[mapWidth + 1];
+        line[mapWidth] = '\n';
+        for (int row = 0; row < mapHeight; row++) {
+            if (row == 0 || row == mapHeight - 1) {
+                Arrays.fill(line, 0, mapWidth, '-');
+            } else {
+                long bit = (long) row * mapWidth;
+                line[0] = '|';
+                for (int col = 1; col < mapWidth - 1; col++) {
+                    line[col] = (obstacles[(int) ((bit + col) >>> 6)] & (1L << (bit + col))) != 0 ? '*' : ' ';
                 }
-                if (direction == facingDirection.LEFT || direction == facingDirection.RIGHT) {
-                    obstacleLength = random.nextInt(mapWidth - 2) + 1;
+                line[mapWidth - 1] = '|';
+                // Insert the PKD into the map
+                if (row == layout.pod.getY() + 1) {
+                    line[layout.pod.getX()] = 'P';
                 }
-
-                // Create anchor Point for wall and add it to obstacles
-                Point obstacle = new Point(random.nextInt(mapHeight - 2) + 1, random.nextInt(mapWidth - 2) + 1);
-                obstacles.add(obstacle);
-                obstaclesLeft--;
-
-                // Create an obstacle wall from the anchor point
-                if (obstacleLength > 1) {
-                    for (int i = 1; i < obstacleLength; i++) {
-                        // Create the next Point in the wall in the current facing direction
-                        obstacle = obstacle.moveBy(direction.delta);
-                        // Add the new Point to the wall if it is within the map walls
-                        if ((obstacle.getX() >= 0) && (obstacle.getX() < mapWidth)
-                                && (obstacle.getY() > 0) && (obstacle.getY() < mapHeight)) {
-                            obstacles.add(obstacle);
-                            obstaclesLeft--;
-                        }
-                    }
+                if (row == layout.kiva.getY() + 1) {
+                    line[layout.kiva.getX()] = 'K';
+                }
+                if (row == layout.drop.getY() + 1) {
+                    line[layout.drop.getX()] = 'D';
                 }
             }
+            out.write(line);
+        }
+    }
+
+    /**
+     * Marks a random staircase corridor from one PKD Point to another, each step moving a column or a row closer.
+     * PKD Points are (x = col, y = row - 1), as they are written into the map.
+     */
+    private static void carveCorridor(Point from, Point to, int mapWidth, long[] corridors, SplittableRandom random) {
+        int col = from.getX();
+        int row = from.getY() + 1;
+        int toCol = to.getX();
+        int toRow = to.getY() + 1;
+        while (true) {
+            long bit = (long) row * mapWidth + col;
+            corridors[(int) (bit >>> 6)] |= 1L << bit;
+            int cols = Math.abs(toCol - col);
+            int rows = Math.abs(toRow - row);
+            if (cols + rows == 0) {
+                return;
+            }
+            if (random.nextInt(cols + rows) < cols) {
+                col += Integer.signum(toCol - col);
+            } else {
+                row += Integer.signum(toRow - row);
+            }
+        }
+    }
 
-        // Create the basic map frame
-        System.out.println("Width = " + mapWidth + " Height = " + mapHeight);
+    /**
+     * Draws random obstacle walls inside the map frame into a bitset, bit {@code row * mapWidth + col} for each obstacle.
+     * Walls leave a gap where they cross a corridor, if corridors are given; the gap counts towards the obstacles drawn,
+     * so the number of walls does not depend on the corridors.
+     */
+    private static long[] drawObstacles(int mapWidth, int mapHeight, long[] corridors, SplittableRandom random) {
+        long[] obstacles = new long[(int) (((long) mapWidth * mapHeight + 63) >>> 6)];
+        // Create obstacles over a random % from 15 to 25% of usable map area
+        for (long obstaclesLeft = ((long) (mapWidth - 2) * (mapHeight - 2) * (random.nextInt(10) + 15)) / 100; obstaclesLeft > 0; ) {
 
-        StringBuilder mapFloor = new StringBuilder();
-        for (int row = 0; row < mapHeight; row++) {
-            for (int col = 0; col < mapWidth; col++) {
-                if (row == 0 || row == mapHeight - 1) {
-                    if (col == mapWidth - 1) {
-                        mapFloor.append("-\n");
-                    } else {
-                        mapFloor.append("-");
-                    }
-                } else if (col == 0) {
-                    mapFloor.append("|");
-                } else if (col == mapWidth - 1) {
-                    mapFloor.append("|\n");
-                } else {
-                    mapFloor.append(" ");
-                }
+            // Randomly decide in which direction to build an obstacle wall.
+            facingDirection direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            int obstacleLength = 1;
 
-                // Insert obstacles
-                for (int i = 0; i < obstacles.size() - 1; i++) {
-                    if (row == obstacles.get(i).getX() + 1 && col == obstacles.get(i).getY()) {
-                        if (row != mapHeight - 1) {
-                            if (mapFloor.charAt(mapFloor.length() - 1) != '\n') {
-                                mapFloor.replace(mapFloor.length() - 1, mapFloor.length(), "*");
-                            }
-                        }
-                        obstacles.remove(i);
-                    }
-                }
+            // Randomly decide how long the wall will be.
+            if (direction == facingDirection.UP || direction == facingDirection.DOWN) {
+                obstacleLength = random.nextInt(mapHeight - 2) + 1;
+            }
+            if (direction == facingDirection.LEFT || direction == facingDirection.RIGHT) {
+                obstacleLength = random.nextInt(mapWidth - 2) + 1;
+            }
 
-                // Insert the PKD into the map
-                if (row == pod.getY() + 1 && col == pod.getX()) {
-                    mapFloor.replace(mapFloor.length() - 1, mapFloor.length(), "P");
-                }
-                if (row == kiva.getY() + 1 && col == kiva.getX()) {
-                    mapFloor.replace(mapFloor.length() - 1, mapFloor.length(), "K");
+            // Create the anchor of the wall (x = col, y = row) and draw the wall from it
+            // in the facing direction until it reaches the map frame.
+            int col = random.nextInt(mapWidth - 2) + 1;
+            int row = random.nextInt(mapHeight - 2) + 1;
+            for (int i = 0; i < obstacleLength && obstaclesLeft > 0; i++) {
+                if (col < 1 || col > mapWidth - 2 || row < 1 || row > mapHeight - 2) {
+                    break;
                 }
-                if (row == drop.getY() + 1 && col == drop.getX()) {
-                    mapFloor.replace(mapFloor.length() - 1, mapFloor.length(), "D");
+                long bit = (long) row * mapWidth + col;
+                if (corridors == null || (corridors[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    obstacles[(int) (bit >>> 6)] |= 1L << bit;
                 }
+                obstaclesLeft--;
+                col += direction.delta.getX();
+                row += direction.delta.getY();
             }
         }
-
-        return String.valueOf(mapFloor);
+        return obstacles;
     }
 
     /**
      * Create a random map (String) that can be used with FloorMap
+     * The map's seed is drawn from this CreateMap's generator; randomMapString(long) with the same seed,
+     * see getLastSeed(), gives the same map again.
      *
      * @return The generated map in String format.
      */
     public String randomMapString() {
-        String map;
-        Solver solver;
+        long seed = nextSeed();
+        String map = solvableMapString(seed);
+        int mapWidth = map.indexOf('\n');
+        System.out.println("Width = " + mapWidth + " Height = " + map.length() / (mapWidth + 1) + " Seed = " + seed);
+        return map;
+    }
+
+    /**
+     * Create the random map (String) for a seed, the map randomMapString() returns when it draws this seed.
+     *
+     * @param seed The seed of the map.
+     * @return The generated map in String format.
+     */
+    public String randomMapString(long seed) {
+        return solvableMapString(seed);
+    }
+
+    /**
+     * Creates a batch of random maps in parallel, one per seed.
+     * Each map only depends on its seed, so map i is the same whatever the number of threads,
+     * and is the map randomMapString(seeds[i]) returns.
+     *
+     * @param seeds The seeds of the maps, for example from batchSeeds().
+     * @return The generated maps in String format, in the order of their seeds.
+     */
+    public List<String> randomMapStrings(long... seeds) {
+        return Arrays.stream(seeds).parallel()
+                .mapToObj(this::solvableMapString)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the seeds of a batch of maps, so the batch can be generated again from one number.
+     *
+     * @param batchSeed The seed of the batch.
+     * @param count     The number of maps in the batch.
+     * @return count map seeds, the same for the same batchSeed.
+     */
+    public static long[] batchSeeds(long batchSeed, int count) {
+        return new SplittableRandom(batchSeed).longs(count).toArray();
+    }
+
+    /**
+     * Generates the map for a seed: the size and every candidate come from the seed's generator,
+     * and candidates are checked with Connectivity, one union-find pass instead of a full solve,
+     * until the Kiva can reach the pod and the drop zone. If corridors are carved (see setCarveCorridors()),
+     * the first candidate is solvable.
+     */
+    private String solvableMapString(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Layout layout;
         do {
-            solver = new Solver();
             int mapWidth = random.nextInt(15) + 10;
             int mapHeight = random.nextInt(5) + 10;
-            map = randomMapString(mapWidth, mapHeight);
-            Maze floormap = new Maze(map);
-            solver.solve(floormap);
-        } while (solver.unsolvable);
-        return map;
+            layout = generate(mapWidth, mapHeight, random);
+        } while (!carveCorridors && !Connectivity.isSolvable(toMaze(layout)));
+        return toMapString(layout);
+    }
+
+    /**
+     * Returns a generated map as a Maze, without writing it as text.
+     */
+    private static Maze toMaze(Layout layout) {
+        Maze maze = new Maze();
+        maze.setLayout(layout.height, layout.width, layout.obstacles,
+                new Point(layout.kiva.getY() + 1, layout.kiva.getX()),
+                new Point(layout.pod.getY() + 1, layout.pod.getX()),
+                new Point(layout.drop.getY() + 1, layout.drop.getX()));
+        return maze;
+    }
+
+    private long nextSeed() {
+        lastSeed = seeds.nextLong();
+        return lastSeed;
+    }
+
+    /**
+     * Returns the seed of the last map this CreateMap generated, which makes the same map again.
+     * For randomMapString() give it to randomMapString(long), for the other methods give it
+     * with the same size to writeRandomMap(int, int, long, Writer).
+     *
+     * @return the seed of the last map.
+     */
+    public long getLastSeed() {
+        return lastSeed;
     }
 
     // The following two FloorMap methods should be commented out for package independence from the ATA KivaWorld project.
@@ -195,11 +520,28 @@ public class CreateMap {
 
     /**
      * Opens a JFileChooser save dialog and allows the user to save a String to a file.
+     * No seed is recorded, and an old seed file for the chosen file is deleted, see saveFile(String, long).
      *
      * @param map String to be saved to the file
      * @return The local file name of the saved file
      */
     public String saveFile(String map) {
+        return saveFile(map, null);
+    }
+
+    /**
+     * Opens a JFileChooser save dialog and allows the user to save a random map String to a file,
+     * with the seed it was generated from saved in a seed file next to it (see seedFile()).
+     *
+     * @param map  String to be saved to the file
+     * @param seed The seed the map was generated from, see getLastSeed()
+     * @return The local file name of the saved file
+     */
+    public String saveFile(String map, long seed) {
+        return saveFile(map, Long.valueOf(seed));
+    }
+
+    private String saveFile(String map, Long seed) {
         try {
             File path;
             JFileChooser fileChooser = new JFileChooser();
@@ -216,6 +558,44 @@ public class CreateMap {
                 fileWriter.write(map);
                 fileWriter.flush();
                 fileWriter.close();
+                if (seed != null) {
+                    writeSeedFile(path, seed);
+                } else {
+                    Files.deleteIfExists(seedFile(path).toPath());
+                }
+                System.out.println(name + " saved.");
+                return name;
+            } else {
+                System.out.println("Save canceled");
+                return "";
+            }
+        } catch (IOException e) {
+            System.out.println("IO Error. Save canceled");
+            e.printStackTrace();
+        }
+        return "";
+    }
+
+    /**
+     * Opens a JFileChooser save dialog and allows the user to save a map String as a binary map (see BinaryMap).
+     *
+     * @param map String to be saved to the file
+     * @return The local file name of the saved file
+     */
+    public String saveBinaryFile(String map) {
+        try {
+            File path;
+            JFileChooser fileChooser = new JFileChooser();
+            FileNameExtensionFilter filter = new FileNameExtensionFilter("Binary FloorMap Files", BinaryMap.EXTENSION);
+            fileChooser.setFileFilter(filter);
+            fileChooser.setCurrentDirectory(new File(System.getProperty("user.dir")));
+            fileChooser.setSelectedFile(new File("random_floor_map." + BinaryMap.EXTENSION));
+            int option = fileChooser.showSaveDialog(null);
+            fileChooser.setVisible(true);
+            if (option == JFileChooser.APPROVE_OPTION) {
+                path = new File(fileChooser.getSelectedFile().getAbsolutePath());
+                String name = path.toString();
+                BinaryMap.save(new Maze(map), path);
                 System.out.println(name + " saved.");
                 return name;
             } else {
@@ -233,6 +613,6 @@ public class CreateMap {
         CreateMap kivaCreateMap = new CreateMap();
         String map = kivaCreateMap.randomMapString();
         System.out.println(map);
-        String floorMapFileName = kivaCreateMap.saveFile(map);
+        String floorMapFileName = kivaCreateMap.saveFile(map, kivaCreateMap.getLastSeed());
     }
 }
@@ -0,0 +1,158 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The number of moves from every cell of a solver.Maze() to one target cell, found by a single Breadth First search
+ * outward from the target.
+ * <p>
+ * Once the field is computed, a shortest path from any cell to the target is recovered in O(path length)
+ * by stepping to a neighbor one move closer, without searching again.
+ * A field belongs to the maze version it was computed from, see isCurrent(Maze).
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1400
+ * @see DistanceFieldCache
+ * @see Maze#getVersion()
+ */
+public class DistanceField {
+
+    /**
+     * The distance reported for cells that can not reach the target, including obstacles.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final int width;
+    private final int height;
+    private final int[] distances;
+    private final Point target;
+    private final long mazeVersion;
+
+    private DistanceField(int width, int height, int[] distances, Point target, long mazeVersion) {
+        this.width = width;
+        this.height = height;
+        this.distances = distances;
+        this.target = target;
+        this.mazeVersion = mazeVersion;
+    }
+
+    /**
+     * Computes the distance from every cell of a maze to a target location.
+     *
+     * @param maze   - a floor map in solver.Maze format.
+     * @param target - the target location point (row, col), for example the drop zone.
+     * @return the DistanceField for the target.
+     */
+    public static DistanceField compute(Maze maze, Point target) {
+        long version = maze.getVersion();
+        int[] distances = distancesFrom(maze, target.getX() * maze.getWidth() + target.getY());
+        return new DistanceField(maze.getWidth(), maze.getHeight(), distances,
+                new Point(target.getX(), target.getY()), version);
+    }
+
+    /**
+     * Runs a Breadth First search over the whole maze from one cell.
+     *
+     * @param maze   - a floor map in solver.Maze format.
+     * @param source - the flat index ({@code row * width + col}) of the cell to measure from.
+     * @return the number of moves from the source to every cell, UNREACHABLE for cells that can not be reached.
+     */
+    static int[] distancesFrom(Maze maze, int source) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        int[] distances = new int[maze.getCellCount()];
+        Arrays.fill(distances, UNREACHABLE);
+        if (maze.isObstacle(source / width, source % width)) {
+            return distances;
+        }
+        int[] queue = new int[distances.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distances[source] = 0;
+        while (head != tail) {
+            int cell = queue[head++];
+            int row = cell / width;
+            int col = cell - row * width;
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                if (nextRow < 0 || nextRow >= height || nextCol < 0 || nextCol >= width) {
+                    continue;
+                }
+                int next = nextRow * width + nextCol;
+                if (distances[next] == UNREACHABLE && !maze.isObstacle(nextRow, nextCol)) {
+                    distances[next] = distances[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Returns the number of moves from a location to the target.
+     *
+     * @param row - the row of the location.
+     * @param col - the column of the location.
+     * @return the number of moves to the target, or UNREACHABLE.
+     */
+    public int getDistance(int row, int col) {
+        return distances[row * width + col];
+    }
+
+    /**
+     * Returns the target location of this field.
+     *
+     * @return the target location point (row, col).
+     */
+    public Point getTarget() {
+        return new Point(target.getX(), target.getY());
+    }
+
+    /**
+     * Returns true if the maze has not changed since this field was computed from it.
+     *
+     * @param maze - the maze this field was computed from.
+     * @return true if the field still describes the maze.
+     */
+    public boolean isCurrent(Maze maze) {
+        return maze.getVersion() == mazeVersion && maze.getWidth() == width && maze.getHeight() == height;
+    }
+
+    /**
+     * Walks down the field from a start location to the target, always stepping to a neighbor one move closer.
+     * Neighbors are tried in the order UP, RIGHT, DOWN, LEFT.
+     *
+     * @param start - the starting location point (row, col).
+     * @return a List of Points from start to the target, inclusive, or an empty List if the target can not be reached.
+     */
+    public List<Point> pathFrom(Point start) {
+        int row = start.getX();
+        int col = start.getY();
+        if (row < 0 || row >= height || col < 0 || col >= width || distances[row * width + col] == UNREACHABLE) {
+            return Collections.emptyList();
+        }
+        int distance = distances[row * width + col];
+        List<Point> path = new ArrayList<>(distance + 1);
+        path.add(new Point(row, col));
+        while (distance > 0) {
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                if (nextRow >= 0 && nextRow < height && nextCol >= 0 && nextCol < width
+                        && distances[nextRow * width + nextCol] == distance - 1) {
+                    row = nextRow;
+                    col = nextCol;
+                    break;
+                }
+            }
+            distance--;
+            path.add(new Point(row, col));
+        }
+        return path;
+    }
+}
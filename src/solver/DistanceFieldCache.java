@@ -0,0 +1,149 @@
+package solver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Keeps one DistanceField per (maze, target) pair, typically one per drop zone,
+ * so repeated missions to the same drop zone do not search the map again.
+ * <p>
+ * A cached field is recomputed the next time it is requested after the maze has changed (see Maze.getVersion()).
+ * Mazes are held weakly, so a maze that is no longer used elsewhere is dropped from the cache with its fields.
+ * One cache can be shared by several Solvers and threads. Fields are computed outside the cache's lock,
+ * and each (maze, target) pair is computed by only one thread at a time, the others waiting for its result.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0800
+ * @see DistanceField
+ * @see Solver#setDistanceFieldCache(DistanceFieldCache)
+ */
+public class DistanceFieldCache {
+    private final Map<Maze, Map<Integer, FutureTask<DistanceField>>> fields = new WeakHashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Returns the DistanceField to a target location, computing it if it is not cached or the maze has changed.
+     * The field is computed outside the lock, so a miss does not hold up requests for other mazes or targets;
+     * a request for a field that another thread is already computing waits for that thread's result.
+     *
+     * @param maze   - a floor map in solver.Maze format.
+     * @param target - the target location point (row, col), for example maze.getDropZoneLocation().
+     * @return the current DistanceField for the target.
+     */
+    public DistanceField get(Maze maze, Point target) {
+        Integer key = target.getX() * maze.getWidth() + target.getY();
+        while (true) {
+            FutureTask<DistanceField> task;
+            boolean computing = false;
+            synchronized (this) {
+                Map<Integer, FutureTask<DistanceField>> mazeFields = fields.get(maze);
+                if (mazeFields == null) {
+                    mazeFields = new HashMap<>();
+                    fields.put(maze, mazeFields);
+                }
+                task = mazeFields.get(key);
+                if (task != null && task.isDone() && !isCurrent(task, maze)) {
+                    mazeFields.clear(); // the maze changed, every field computed from it is stale
+                    task = null;
+                }
+                if (task == null) {
+                    misses++;
+                    task = new FutureTask<>(() -> DistanceField.compute(maze, target));
+                    mazeFields.put(key, task);
+                    computing = true;
+                } else {
+                    hits++;
+                }
+            }
+            if (computing) {
+                task.run();
+            }
+            DistanceField field = await(task, maze, key);
+            if (computing || field.isCurrent(maze)) {
+                return field;
+            }
+            // the field this thread waited for was computed before the maze changed, ask again
+        }
+    }
+
+    private static boolean isCurrent(FutureTask<DistanceField> task, Maze maze) {
+        try {
+            return task.get().isCurrent(maze);
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Waits for a field to be computed. A failed computation is removed from the cache and its exception rethrown.
+     */
+    private DistanceField await(FutureTask<DistanceField> task, Maze maze, Integer key) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    synchronized (this) {
+                        Map<Integer, FutureTask<DistanceField>> mazeFields = fields.get(maze);
+                        if (mazeFields != null) {
+                            mazeFields.remove(key, task);
+                        }
+                    }
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Removes every field computed from a maze.
+     *
+     * @param maze - the maze to forget.
+     */
+    public synchronized void invalidate(Maze maze) {
+        fields.remove(maze);
+    }
+
+    /**
+     * Removes every field from the cache.
+     */
+    public synchronized void clear() {
+        fields.clear();
+    }
+
+    /**
+     * Returns the number of requests answered with a cached field.
+     *
+     * @return the number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests that had to compute a field, because none was cached or the maze had changed.
+     *
+     * @return the number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,133 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Breadth First search engine for solver.Maze() that works on flat {@code int} cell indices.
+ * <p>
+ * A cell at {@code [row][col]} is addressed as {@code row * width + col}.
+ * The frontier is an {@code int[]} ring buffer, and each cell stores the direction it was reached from,
+ * so no Point objects are created while searching. Cells are marked visited when they are enqueued,
+ * so each cell enters the queue at most once.
+ * <p>
+ * Neighbors are visited in the same order as Solver.DIRECTIONS (UP, RIGHT, DOWN, LEFT),
+ * so the path returned is the same shortest path found by Solver.solver(Maze, Point).
+ * The scratch arrays are kept and reused by the next search on a map of the same or smaller size.
+ * Visited marks are stamped with an epoch (see VisitedMarks), so a short search on a big map
+ * does not pay for clearing an array the size of the map.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.2200
+ * @see SearchStrategy
+ * @see Solver
+ * @see Maze
+ */
+public class FlatBreadthFirstSearch implements SearchStrategy {
+
+    /**
+     * Row and column deltas in {@code (row, col)} format, in the order UP, RIGHT, DOWN, LEFT.
+     */
+    static final int[] ROW_DELTAS = {-1, 0, 1, 0};
+    static final int[] COL_DELTAS = {0, 1, 0, -1};
+
+    private int[] queue = new int[0];
+    private byte[] reachedFrom = new byte[0]; // direction index + 1 the cell was entered with, valid if visited
+    private final VisitedMarks visited = new VisitedMarks();
+    private int expanded = 0;
+
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        expanded = 0;
+        if (!maze.isValidLocation(start.getX(), start.getY()) || maze.isObstacle(start.getX(), start.getY())) {
+            return Collections.emptyList();
+        }
+        if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+            return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+        }
+        ensureCapacity(maze.getCellCount());
+
+        final int startCell = start.getX() * width + start.getY();
+        final int goalCell = goal.getX() * width + goal.getY();
+        final int capacity = maze.getCellCount();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startCell;
+        visited.mark(startCell); // the start has no reachedFrom direction
+
+        while (head != tail) {
+            int cell = queue[head];
+            if (++head == capacity) {
+                head = 0;
+            }
+            expanded++;
+            int row = cell / width;
+            int col = cell - row * width;
+
+            for (int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                int nextRow = row + ROW_DELTAS[direction];
+                int nextCol = col + COL_DELTAS[direction];
+                if (nextRow < 0 || nextRow >= height || nextCol < 0 || nextCol >= width) {
+                    continue;
+                }
+                int next = nextRow * width + nextCol;
+                if (visited.isMarked(next) || maze.isObstacle(nextRow, nextCol)) {
+                    continue;
+                }
+                visited.mark(next);
+                reachedFrom[next] = (byte) (direction + 1);
+                if (next == goalCell) {
+                    return backtrackPath(reachedFrom, next, startCell, width);
+                }
+                queue[tail] = next;
+                if (++tail == capacity) {
+                    tail = 0;
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Walks the reachedFrom marks back from the goal cell to the start cell.
+     *
+     * @param reachedFrom - direction index + 1 each cell was entered with.
+     * @param goalCell    - the flat index of the goal cell.
+     * @param startCell   - the flat index of the start cell.
+     * @param width       - the width of the maze.
+     * @return a List of Points from start to goal.
+     */
+    static List<Point> backtrackPath(byte[] reachedFrom, int goalCell, int startCell, int width) {
+        List<Point> path = new ArrayList<>();
+        int cell = goalCell;
+        while (cell != startCell) {
+            int direction = reachedFrom[cell] - 1;
+            path.add(new Point(cell / width, cell % width));
+            cell -= ROW_DELTAS[direction] * width + COL_DELTAS[direction];
+        }
+        path.add(new Point(cell / width, cell % width));
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Grows the scratch arrays if needed and clears the visited marks for the next search.
+     *
+     * @param cells - the number of cells in the maze.
+     */
+    private void ensureCapacity(int cells) {
+        if (queue.length < cells) {
+            queue = new int[cells];
+            reachedFrom = new byte[cells];
+        }
+        visited.reset(cells);
+    }
+}
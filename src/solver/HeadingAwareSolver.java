@@ -0,0 +1,289 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Kiva mission solver that minimizes the time needed to execute the Kiva commands,
+ * rather than the number of cells in the path.
+ * <p>
+ * Solver.constructKivaCommands() turns a shortest cell path into F, L and R commands after the path is found,
+ * so a path that zig-zags costs many more turns than a path of the same length with a few long straight runs.
+ * This solver searches over states of {@code (cell, facingDirection, carrying pod)} instead of cells,
+ * where moving forward, turning left and turning right each have their own configurable cost,
+ * and returns the path and command string with the lowest total cost.
+ * The Kiva starts facing UP. Picking up the pod (T) and dropping it (D) happen once per mission and add no cost.
+ * Because the pod is part of the state, the heading the Kiva has when it picks up the pod
+ * is chosen with the drop zone leg in mind.
+ * <p>
+ * The search is A* with the Manhattan distance to the pod and then to the drop zone,
+ * multiplied by the forward cost, as its heuristic. State costs and moves are kept in primitive arrays,
+ * and are only valid for states marked seen in the current solve (see VisitedMarks), so nothing is cleared
+ * between solves.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.1000
+ * @see Solver#constructKivaCommands(List)
+ */
+public class HeadingAwareSolver {
+
+    private static final int HEADINGS = 4; // UP, RIGHT, DOWN, LEFT, the order of FlatBreadthFirstSearch.ROW_DELTAS
+    private static final int UP = 0;
+
+    // how each state was reached
+    private static final byte FORWARD = 1;
+    private static final byte TURN_LEFT = 2;
+    private static final byte TURN_RIGHT = 3;
+    private static final byte FORWARD_TAKE_POD = 4;
+
+    private final int forwardCost;
+    private final int turnLeftCost;
+    private final int turnRightCost;
+
+    private final IntHeap open = new IntHeap();
+    private int[] cost = new int[0];   // valid if seen
+    private byte[] move = new byte[0]; // valid if seen
+    private final VisitedMarks seen = new VisitedMarks();
+    private int expanded = 0;
+
+    /**
+     * The result of a HeadingAwareSolver mission: the cell path, the Kiva commands and their total cost.
+     */
+    public static class Route {
+        private final List<Point> path;
+        private final String commands;
+        private final int cost;
+
+        Route(List<Point> path, String commands, int cost) {
+            this.path = path;
+            this.commands = commands;
+            this.cost = cost;
+        }
+
+        /**
+         * Returns the path in the same format as Solver.solve(), Points in (row, col) format
+         * with the pod location listed twice when the map has a pod.
+         *
+         * @return the List of Points in the route, empty if the mission can not be completed.
+         */
+        public List<Point> getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the Kiva commands for the route.
+         *
+         * @return String with the Kiva commands, empty if the mission can not be completed.
+         */
+        public String getCommands() {
+            return commands;
+        }
+
+        /**
+         * Returns the total cost of the forward moves and turns in the route.
+         *
+         * @return the cost of the route, or -1 if the mission can not be completed.
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * Returns true if the mission can be completed.
+         *
+         * @return true if a route was found.
+         */
+        public boolean isSolvable() {
+            return cost >= 0;
+        }
+    }
+
+    /**
+     * Creates a HeadingAwareSolver where moving forward and turning have the same cost,
+     * which finds the route with the fewest commands.
+     */
+    public HeadingAwareSolver() {
+        this(1, 1, 1);
+    }
+
+    /**
+     * Creates a HeadingAwareSolver with the given command costs, for example the time each command takes on the floor.
+     *
+     * @param forwardCost   - the cost of one F (forward) command, at least 1.
+     * @param turnLeftCost  - the cost of one L (turn left) command, at least 1.
+     * @param turnRightCost - the cost of one R (turn right) command, at least 1.
+     */
+    public HeadingAwareSolver(int forwardCost, int turnLeftCost, int turnRightCost) {
+        if (forwardCost < 1 || turnLeftCost < 1 || turnRightCost < 1) {
+            throw new IllegalArgumentException("command costs must be at least 1 (were F=" + forwardCost
+                    + ", L=" + turnLeftCost + ", R=" + turnRightCost + ")");
+        }
+        this.forwardCost = forwardCost;
+        this.turnLeftCost = turnLeftCost;
+        this.turnRightCost = turnRightCost;
+    }
+
+    /**
+     * Solves the map from the Kiva to the pod to the drop zone, or from start to end if there is no pod,
+     * with the lowest total command cost.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @return the Route found, with an empty path and commands if the mission can not be completed.
+     */
+    public Route solve(Maze maze) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        final int cells = maze.getCellCount();
+        if (cells > Integer.MAX_VALUE / (2 * HEADINGS)) {
+            throw new IllegalArgumentException("a " + height + " x " + width + " floor has too many cells to search"
+                    + " with headings, the most is " + Integer.MAX_VALUE / (2 * HEADINGS));
+        }
+        final Point kiva = maze.getInitialKivaLocation();
+        final Point drop = maze.getDropZoneLocation();
+        final Point pod = maze.getPodLocation();
+        final boolean hasPod = pod != null;
+        final int podCell = hasPod ? pod.getX() * width + pod.getY() : -1;
+        final int dropCell = drop.getX() * width + drop.getY();
+        final int podToDrop = hasPod ? AStarSearch.manhattan(pod.getX(), pod.getY(), drop.getX(), drop.getY()) : 0;
+        expanded = 0;
+        ensureCapacity(2 * cells * HEADINGS);
+
+        // without a pod the Kiva starts out as if it already carries one
+        int startState = state(kiva.getX() * width + kiva.getY(), UP, hasPod ? 0 : 1, cells);
+        open.clear();
+        seen.mark(startState);
+        cost[startState] = 0;
+        open.push(AStarSearch.key(0, 0), startState);
+
+        while (!open.isEmpty()) {
+            long key = open.peekKey();
+            int state = open.poll();
+            int g = Integer.MAX_VALUE - (int) key;
+            if (g != cost[state]) {
+                continue; // stale entry
+            }
+            int heading = state % HEADINGS;
+            int cell = (state / HEADINGS) % cells;
+            int carrying = state / HEADINGS / cells;
+            if (carrying == 1 && cell == dropCell) {
+                return buildRoute(state, startState, g, width, cells);
+            }
+            expanded++;
+
+            relax(state(cell, (heading + HEADINGS - 1) % HEADINGS, carrying, cells), g + turnLeftCost, TURN_LEFT,
+                    cell, carrying, width, podCell, dropCell, podToDrop);
+            relax(state(cell, (heading + 1) % HEADINGS, carrying, cells), g + turnRightCost, TURN_RIGHT,
+                    cell, carrying, width, podCell, dropCell, podToDrop);
+
+            int row = cell / width;
+            int col = cell - row * width;
+            int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[heading];
+            int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[heading];
+            if (nextRow >= 0 && nextRow < height && nextCol >= 0 && nextCol < width && !maze.isObstacle(nextRow, nextCol)) {
+                int next = nextRow * width + nextCol;
+                if (carrying == 0 && next == podCell) {
+                    relax(state(next, heading, 1, cells), g + forwardCost, FORWARD_TAKE_POD,
+                            next, 1, width, podCell, dropCell, podToDrop);
+                } else {
+                    relax(state(next, heading, carrying, cells), g + forwardCost, FORWARD,
+                            next, carrying, width, podCell, dropCell, podToDrop);
+                }
+            }
+        }
+        return new Route(Collections.<Point>emptyList(), "", -1);
+    }
+
+    /**
+     * Returns the number of states expanded by the last solve.
+     *
+     * @return the number of states expanded by the last solve.
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    private void relax(int next, int nextCost, byte how, int cell, int carrying, int width,
+                       int podCell, int dropCell, int podToDrop) {
+        if (seen.isMarked(next) && nextCost >= cost[next]) {
+            return;
+        }
+        seen.mark(next);
+        cost[next] = nextCost;
+        move[next] = how;
+        int row = cell / width;
+        int col = cell - row * width;
+        int remaining = carrying == 1
+                ? AStarSearch.manhattan(row, col, dropCell / width, dropCell % width)
+                : AStarSearch.manhattan(row, col, podCell / width, podCell % width) + podToDrop;
+        open.push(AStarSearch.key(nextCost + remaining * forwardCost, nextCost), next);
+    }
+
+    /**
+     * Walks the recorded moves back from the goal state and replays them into a path and Kiva commands.
+     */
+    private Route buildRoute(int goalState, int startState, int totalCost, int width, int cells) {
+        List<Byte> moves = new ArrayList<>();
+        int state = goalState;
+        while (state != startState) {
+            byte how = move[state];
+            moves.add(how);
+            int heading = state % HEADINGS;
+            int cell = (state / HEADINGS) % cells;
+            int carrying = state / HEADINGS / cells;
+            if (how == TURN_LEFT) {
+                state = state(cell, (heading + 1) % HEADINGS, carrying, cells);
+            } else if (how == TURN_RIGHT) {
+                state = state(cell, (heading + HEADINGS - 1) % HEADINGS, carrying, cells);
+            } else {
+                int previous = cell - (FlatBreadthFirstSearch.ROW_DELTAS[heading] * width + FlatBreadthFirstSearch.COL_DELTAS[heading]);
+                state = state(previous, heading, how == FORWARD_TAKE_POD ? 0 : carrying, cells);
+            }
+        }
+        Collections.reverse(moves);
+
+        int cell = (startState / HEADINGS) % cells;
+        int heading = UP;
+        List<Point> path = new ArrayList<>();
+        StringBuilder commands = new StringBuilder(moves.size() + 2);
+        path.add(new Point(cell / width, cell % width));
+        for (byte how : moves) {
+            if (how == TURN_LEFT) {
+                heading = (heading + HEADINGS - 1) % HEADINGS;
+                commands.append('L');
+            } else if (how == TURN_RIGHT) {
+                heading = (heading + 1) % HEADINGS;
+                commands.append('R');
+            } else {
+                cell += FlatBreadthFirstSearch.ROW_DELTAS[heading] * width + FlatBreadthFirstSearch.COL_DELTAS[heading];
+                path.add(new Point(cell / width, cell % width));
+                commands.append('F');
+                if (how == FORWARD_TAKE_POD) {
+                    path.add(new Point(cell / width, cell % width));
+                    commands.append('T');
+                }
+            }
+        }
+        if (path.size() > 1) {
+            commands.append('D');
+        }
+        return new Route(path, commands.toString(), totalCost);
+    }
+
+    private static int state(int cell, int heading, int carrying, int cells) {
+        return (carrying * cells + cell) * HEADINGS + heading;
+    }
+
+    /**
+     * Grows the scratch arrays if needed and clears the seen marks for the next solve.
+     *
+     * @param states - the number of states in the maze.
+     */
+    private void ensureCapacity(int states) {
+        if (cost.length < states) {
+            cost = new int[states];
+            move = new byte[states];
+        }
+        seen.reset(states);
+    }
+}
@@ -0,0 +1,259 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hierarchical (HPA*) search strategy for very large solver.Maze() floors.
+ * <p>
+ * The maze is divided into square clusters with a ClusterGraph, whose nodes are the entrances between clusters.
+ * A search first links the start and the goal to the entrances of their own clusters,
+ * then runs A* on the small abstract graph, and finally refines the abstract route into cells
+ * with Breadth First searches confined to the clusters along it. Only those clusters are ever touched
+ * at cell level, so the memory a search uses does not grow with the size of the floor.
+ * <p>
+ * The path is always valid but may be a few steps longer than a shortest path, since routes between clusters
+ * must pass through the chosen entrance cells. The ClusterGraph is built the first time a maze is searched
+ * and refreshed, one changed cluster at a time, whenever the maze changes (see Maze.getVersion()).
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1700
+ * @see ClusterGraph
+ * @see SearchStrategy
+ */
+public class HierarchicalSearch implements SearchStrategy {
+
+    /**
+     * The cluster size used when none is given.
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+    private static final int UNSEEN = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private final int clusterSize;
+    private ClusterGraph graph;
+    private Maze graphMaze;
+
+    private final IntHeap open = new IntHeap();
+    private final IntList touched = new IntList();
+    private int[] cost = new int[0];
+    private int[] parent = new int[0];
+    private int[] startDistances = new int[0];
+    private int[] goalDistances = new int[0];
+    private int expanded = 0;
+
+    /**
+     * Creates a HierarchicalSearch with clusters of DEFAULT_CLUSTER_SIZE cells square.
+     */
+    public HierarchicalSearch() {
+        this(DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Creates a HierarchicalSearch with the given cluster size.
+     *
+     * @param clusterSize - the width and height of a cluster in cells.
+     */
+    public HierarchicalSearch(int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("cluster size must be at least 2 (was " + clusterSize + ")");
+        }
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Returns the ClusterGraph used by the last search.
+     *
+     * @return the current ClusterGraph, or null if nothing has been searched yet.
+     */
+    public ClusterGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Finds a path using the cluster abstraction. The path may be slightly longer than a shortest path.
+     *
+     * @param maze  - a floor map in solver.Maze format.
+     * @param start - the starting location point (row, col).
+     * @param goal  - the goal location point (row, col).
+     * @return a List of Points from start to goal, inclusive, or an empty List if the goal can not be reached.
+     */
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        final int width = maze.getWidth();
+        expanded = 0;
+        if (!maze.isValidLocation(start.getX(), start.getY()) || maze.isObstacle(start.getX(), start.getY())
+                || !maze.isValidLocation(goal.getX(), goal.getY()) || maze.isObstacle(goal.getX(), goal.getY())) {
+            return Collections.emptyList();
+        }
+        if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+            return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+        }
+        if (graph == null || graphMaze != maze) {
+            graph = ClusterGraph.build(maze, clusterSize);
+            graphMaze = maze;
+        } else {
+            graph.refresh(maze);
+        }
+
+        final int startCell = start.getX() * width + start.getY();
+        final int goalCell = goal.getX() * width + goal.getY();
+        final int startCluster = graph.clusterOf(startCell);
+        final int goalCluster = graph.clusterOf(goalCell);
+        final int nodes = graph.getNodeCount();
+        final int startNode = nodes;
+        final int goalNode = nodes + 1;
+        ensureCapacity(nodes + 2);
+
+        // link the start and the goal to the entrances of their clusters
+        ClusterGraph.LocalSearch local = graph.borrowLocalSearch();
+        List<Point> path;
+        try {
+            local.run(maze, graph, startCluster, startCell);
+            expanded += local.getExpandedCount();
+            startDistances = linkDistances(local, startCluster, startDistances);
+            int direct = startCluster == goalCluster ? local.distanceTo(goalCell) : ClusterGraph.UNREACHABLE;
+            local.run(maze, graph, goalCluster, goalCell);
+            expanded += local.getExpandedCount();
+            goalDistances = linkDistances(local, goalCluster, goalDistances);
+
+            int found = abstractSearch(width, startNode, goalNode, startCluster, goalCluster, direct, goal);
+            path = found == NONE ? Collections.<Point>emptyList()
+                    : refine(maze, local, startNode, goalNode, startCell, goalCell);
+        } finally {
+            graph.giveBack(local);
+        }
+        for (int i = 0; i < touched.size(); i++) {
+            cost[touched.get(i)] = UNSEEN;
+        }
+        touched.clear();
+        return path;
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    private int[] linkDistances(ClusterGraph.LocalSearch local, int cluster, int[] into) {
+        int count = graph.entranceCount(cluster);
+        int[] linked = into.length >= count ? into : new int[count];
+        for (int i = 0; i < count; i++) {
+            linked[i] = local.distanceTo(graph.nodeCell(cluster, i));
+        }
+        return linked;
+    }
+
+    /**
+     * A* over the abstract graph from the start node to the goal node, with the Manhattan heuristic.
+     *
+     * @return the goal node, or NONE if the goal can not be reached.
+     */
+    private int abstractSearch(int width, int startNode, int goalNode, int startCluster, int goalCluster,
+                               int direct, Point goal) {
+        open.clear();
+        visit(startNode, 0, NONE, 0);
+        while (!open.isEmpty()) {
+            long key = open.peekKey();
+            int node = open.poll();
+            int g = Integer.MAX_VALUE - (int) key;
+            if (g != cost[node]) {
+                continue; // stale entry
+            }
+            if (node == goalNode) {
+                return goalNode;
+            }
+            expanded++;
+            if (node == startNode) {
+                for (int i = 0; i < graph.entranceCount(startCluster); i++) {
+                    if (startDistances[i] != ClusterGraph.UNREACHABLE) {
+                        relax(width, graph.firstNode(startCluster) + i, g + startDistances[i], node, goal);
+                    }
+                }
+                if (direct != ClusterGraph.UNREACHABLE) {
+                    visit(goalNode, direct, node, direct);
+                }
+                continue;
+            }
+            int cluster = graph.clusterOfNode(node);
+            int index = node - graph.firstNode(cluster);
+            for (int i = 0; i < graph.entranceCount(cluster); i++) {
+                int distance = graph.intraDistance(cluster, index, i);
+                if (i != index && distance != ClusterGraph.UNREACHABLE) {
+                    relax(width, graph.firstNode(cluster) + i, g + distance, node, goal);
+                }
+            }
+            for (int edge = graph.interFirst(node); edge < graph.interFirst(node + 1); edge++) {
+                relax(width, graph.interTarget(edge), g + 1, node, goal);
+            }
+            if (cluster == goalCluster && goalDistances[index] != ClusterGraph.UNREACHABLE) {
+                int nextCost = g + goalDistances[index];
+                if (nextCost < cost[goalNode]) {
+                    visit(goalNode, nextCost, node, nextCost);
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private void relax(int width, int next, int nextCost, int from, Point goal) {
+        if (nextCost < cost[next]) {
+            int cell = graph.cellOfNode(next);
+            int row = cell / width;
+            visit(next, nextCost, from, nextCost + AStarSearch.manhattan(row, cell - row * width, goal.getX(), goal.getY()));
+        }
+    }
+
+    private void visit(int node, int nodeCost, int from, int estimate) {
+        if (cost[node] == UNSEEN) {
+            touched.add(node);
+        }
+        cost[node] = nodeCost;
+        parent[node] = from;
+        open.push(AStarSearch.key(estimate, nodeCost), node);
+    }
+
+    /**
+     * Turns the abstract route into cells, searching only the clusters the route passes through.
+     */
+    private List<Point> refine(Maze maze, ClusterGraph.LocalSearch local, int startNode, int goalNode,
+                               int startCell, int goalCell) {
+        IntList cells = new IntList();
+        for (int node = goalNode; node != NONE; node = parent[node]) {
+            cells.add(node == goalNode ? goalCell : node == startNode ? startCell : graph.cellOfNode(node));
+        }
+        cells.reverse();
+
+        final int width = maze.getWidth();
+        List<Point> path = new ArrayList<>(cost[goalNode] + 1);
+        path.add(new Point(startCell / width, startCell % width));
+        for (int i = 0; i + 1 < cells.size(); i++) {
+            int from = cells.get(i);
+            int to = cells.get(i + 1);
+            if (from == to) {
+                continue;
+            }
+            int cluster = graph.clusterOf(from);
+            if (cluster != graph.clusterOf(to)) {
+                path.add(new Point(to / width, to % width)); // an edge across a border is a single step
+            } else {
+                local.run(maze, graph, cluster, from);
+                expanded += local.getExpandedCount();
+                local.appendPath(to, path);
+            }
+        }
+        return path;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (cost.length < nodes) {
+            cost = new int[nodes];
+            parent = new int[nodes];
+            Arrays.fill(cost, UNSEEN);
+            touched.clear();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An incremental (D* Lite) planner for one leg of a Kiva mission on a solver.Maze() that changes while the Kiva moves.
+ * <p>
+ * The planner searches backward from the goal and keeps its search state between calls:
+ * for every cell, {@code g} is the distance to the goal found so far and {@code rhs} is the best distance
+ * offered by its neighbors. Cells where the two differ are on the open list. After obstacles are added or removed,
+ * replan() puts only the changed cells and their neighbors back on the open list, so the search repairs the part of
+ * the distances the change affects instead of starting over. As the Kiva moves, moveTo() shifts the heuristic
+ * origin without invalidating the open list.
+ * <p>
+ * Typical use:
+ * <pre>
+ *     IncrementalPlanner planner = new IncrementalPlanner(maze, kiva, pod);
+ *     List&lt;Point&gt; path = planner.plan();
+ *     // the Kiva moves along the path, then a cell is blocked
+ *     planner.moveTo(current);
+ *     maze.setObstacle(row, col, true);
+ *     path = planner.replan(Collections.singletonList(new Point(row, col)));
+ * </pre>
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1800
+ * @see Maze#setObstacle(int, int, boolean)
+ * @see SearchStrategy
+ */
+public class IncrementalPlanner {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final long NOT_QUEUED = -1;
+    private static final int NOT_FOUND = -1;
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    private final int goalCell;
+    private int startCell;
+    private int lastCell;  // the start when the heuristic offset was last updated
+    private int offset;    // km, the sum of the heuristic shifts since the first plan
+
+    private final int[] g;
+    private final int[] rhs;
+    private final long[] queuedKey; // the key a cell is on the open list with, NOT_QUEUED if it is not
+    private final IntHeap open = new IntHeap();
+    private boolean planned = false;
+    private int expanded = 0;
+
+    /**
+     * Creates a planner for one leg.
+     *
+     * @param maze  - a floor map in solver.Maze format; obstacles are read from it on every plan.
+     * @param start - the starting location point (row, col), usually the Kiva.
+     * @param goal  - the goal location point (row, col).
+     */
+    public IncrementalPlanner(Maze maze, Point start, Point goal) {
+        if (!maze.isValidLocation(start.getX(), start.getY()) || !maze.isValidLocation(goal.getX(), goal.getY())) {
+            throw new IllegalArgumentException("start " + start + " and goal " + goal + " must be inside the maze");
+        }
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.goalCell = goal.getX() * width + goal.getY();
+        this.startCell = start.getX() * width + start.getY();
+        this.lastCell = startCell;
+        int cells = maze.getCellCount();
+        g = new int[cells];
+        rhs = new int[cells];
+        queuedKey = new long[cells];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        Arrays.fill(queuedKey, NOT_QUEUED);
+    }
+
+    /**
+     * Finds a shortest path from the current start to the goal, searching only as much as needed
+     * since the last plan.
+     *
+     * @return a List of Points from start to goal, inclusive, or an empty List if the goal can not be reached.
+     */
+    public List<Point> plan() {
+        if (!planned) {
+            rhs[goalCell] = 0;
+            enqueue(goalCell);
+            planned = true;
+        }
+        followStart();
+        computeShortestPath();
+        return extractPath();
+    }
+
+    /**
+     * Repairs the plan after obstacles were added or removed, then returns the new path.
+     *
+     * @param changedCells - the cells, in (row, col) format, whose obstacle state changed since the last plan.
+     * @return a List of Points from start to goal, inclusive, or an empty List if the goal can not be reached.
+     */
+    public List<Point> replan(Collection<Point> changedCells) {
+        if (!planned) {
+            return plan();
+        }
+        followStart();
+        for (Point changed : changedCells) {
+            int row = changed.getX();
+            int col = changed.getY();
+            if (!maze.isValidLocation(row, col)) {
+                continue;
+            }
+            int cell = row * width + col;
+            updateCell(cell);
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                if (nextRow >= 0 && nextRow < height && nextCol >= 0 && nextCol < width) {
+                    updateCell(nextRow * width + nextCol);
+                }
+            }
+        }
+        return plan();
+    }
+
+    /**
+     * Moves the start of the leg, as the Kiva advances along its path. The next plan starts from here.
+     *
+     * @param start - the new starting location point (row, col).
+     */
+    public void moveTo(Point start) {
+        if (!maze.isValidLocation(start.getX(), start.getY())) {
+            throw new IllegalArgumentException("start " + start + " must be inside the maze");
+        }
+        startCell = start.getX() * width + start.getY();
+    }
+
+    /**
+     * Returns the number of cells expanded by the last plan or replan.
+     *
+     * @return the number of cells expanded.
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Returns the length of the current plan in steps.
+     *
+     * @return the number of steps from the start to the goal, or -1 if the goal can not be reached.
+     */
+    public int getPathLength() {
+        return g[startCell] == INFINITY ? -1 : g[startCell];
+    }
+
+    /**
+     * Keys already queued were computed from an older start, so every new key is raised
+     * by the distance the start has moved since then.
+     */
+    private void followStart() {
+        if (startCell != lastCell) {
+            offset += heuristic(lastCell);
+            lastCell = startCell;
+        }
+    }
+
+    private void computeShortestPath() {
+        expanded = 0;
+        while (!open.isEmpty()) {
+            long top = open.peekKey();
+            int cell = open.peekValue();
+            if (queuedKey[cell] != top) {
+                open.poll(); // stale entry
+                continue;
+            }
+            if (top >= key(startCell) && rhs[startCell] == g[startCell]) {
+                break;
+            }
+            open.poll();
+            queuedKey[cell] = NOT_QUEUED;
+            long current = key(cell);
+            if (top < current) {
+                // the heuristic origin moved since the cell was queued
+                queuedKey[cell] = current;
+                open.push(current, cell);
+                continue;
+            }
+            expanded++;
+            if (g[cell] > rhs[cell]) {
+                g[cell] = rhs[cell];
+                if (!isOpen(cell)) {
+                    continue;
+                }
+                int row = cell / width;
+                int col = cell - row * width;
+                for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                    int next = neighbor(row, col, direction);
+                    if (next >= 0 && next != goalCell && isOpen(next) && g[cell] + 1 < rhs[next]) {
+                        rhs[next] = g[cell] + 1;
+                        enqueue(next);
+                    }
+                }
+            } else {
+                g[cell] = INFINITY;
+                updateCell(cell);
+                int row = cell / width;
+                int col = cell - row * width;
+                for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                    int next = neighbor(row, col, direction);
+                    if (next >= 0) {
+                        updateCell(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes a cell's rhs from its neighbors and puts it on or takes it off the open list.
+     */
+    private void updateCell(int cell) {
+        if (cell != goalCell) {
+            int best = INFINITY;
+            if (isOpen(cell)) {
+                int row = cell / width;
+                int col = cell - row * width;
+                for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                    int next = neighbor(row, col, direction);
+                    if (next >= 0 && isOpen(next) && g[next] != INFINITY) {
+                        best = Math.min(best, g[next] + 1);
+                    }
+                }
+            }
+            rhs[cell] = best;
+        }
+        enqueue(cell);
+    }
+
+    /**
+     * Puts an inconsistent cell on the open list with its current key, or takes a consistent one off.
+     * Old heap entries are left in place and skipped when polled.
+     */
+    private void enqueue(int cell) {
+        if (g[cell] == rhs[cell]) {
+            queuedKey[cell] = NOT_QUEUED;
+            return;
+        }
+        long key = key(cell);
+        if (queuedKey[cell] != key) {
+            queuedKey[cell] = key;
+            open.push(key, cell);
+        }
+    }
+
+    /**
+     * Orders the open list by {@code min(g, rhs) + h + km}, then by {@code min(g, rhs)}.
+     */
+    private long key(int cell) {
+        long distance = Math.min(g[cell], rhs[cell]);
+        if (distance == INFINITY) {
+            return Long.MAX_VALUE;
+        }
+        return ((distance + heuristic(cell) + offset) << 32) | distance;
+    }
+
+    /**
+     * Returns the Manhattan distance from the current start to a cell.
+     */
+    private int heuristic(int cell) {
+        int row = cell / width;
+        return AStarSearch.manhattan(startCell / width, startCell % width, row, cell - row * width);
+    }
+
+    /**
+     * Follows the neighbor with the lowest distance to the goal from the start, in UP, RIGHT, DOWN, LEFT order on ties.
+     */
+    private List<Point> extractPath() {
+        if (g[startCell] == INFINITY || !isOpen(startCell)) {
+            return Collections.emptyList();
+        }
+        List<Point> path = new ArrayList<>(g[startCell] + 1);
+        int cell = startCell;
+        path.add(new Point(cell / width, cell % width));
+        while (cell != goalCell) {
+            int row = cell / width;
+            int col = cell - row * width;
+            int best = NOT_FOUND;
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                int next = neighbor(row, col, direction);
+                if (next >= 0 && isOpen(next) && g[next] != INFINITY && (best == NOT_FOUND || g[next] < g[best])) {
+                    best = next;
+                }
+            }
+            if (best == NOT_FOUND || g[best] >= g[cell]) {
+                return Collections.emptyList(); // the plan is not consistent with the maze, changed cells were missed
+            }
+            cell = best;
+            path.add(new Point(cell / width, cell % width));
+        }
+        return path;
+    }
+
+    private int neighbor(int row, int col, int direction) {
+        int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+        int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+        if (nextRow < 0 || nextRow >= height || nextCol < 0 || nextCol >= width) {
+            return NOT_FOUND;
+        }
+        return nextRow * width + nextCol;
+    }
+
+    private boolean isOpen(int cell) {
+        int row = cell / width;
+        return !maze.isObstacle(row, cell - row * width);
+    }
+}
@@ -0,0 +1,114 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of {@code int} values ordered by {@code long} keys, kept in two primitive arrays.
+ * <p>
+ * Used as the open list by the informed search strategies, so no objects are created per heap entry.
+ * There is no decrease-key; callers push a value again with its improved key and skip stale entries when polled.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1000
+ * @see AStarSearch
+ */
+final class IntHeap {
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+
+    IntHeap() {
+        this(64);
+    }
+
+    IntHeap(int initialCapacity) {
+        keys = new long[Math.max(initialCapacity, 2)];
+        values = new int[keys.length];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a value to the heap.
+     *
+     * @param key   - the priority of the value, lower keys are polled first.
+     * @param value - the value to add.
+     */
+    void push(long key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * Returns the lowest key in the heap without removing it.
+     *
+     * @return the lowest key.
+     */
+    long peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Returns the value with the lowest key without removing it.
+     *
+     * @return the value with the lowest key.
+     */
+    int peekValue() {
+        return values[0];
+    }
+
+    /**
+     * Removes the value with the lowest key from the heap.
+     *
+     * @return the value with the lowest key.
+     */
+    int poll() {
+        int top = values[0];
+        size--;
+        if (size > 0) {
+            long key = keys[size];
+            int value = values[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return top;
+    }
+}
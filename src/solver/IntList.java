@@ -0,0 +1,65 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of {@code int} values kept in a primitive array.
+ * <p>
+ * Used for the scratch lists of the preprocessed search structures, so no boxed Integers are created.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1600
+ * @see RouteIndex
+ */
+final class IntList {
+    private int[] values;
+    private int size = 0;
+
+    IntList() {
+        this(16);
+    }
+
+    IntList(int initialCapacity) {
+        values = new int[Math.max(initialCapacity, 2)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Removes and returns the last value, so the list can be used as a stack.
+     *
+     * @return the last value in the list.
+     */
+    int pop() {
+        return values[--size];
+    }
+
+    void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,225 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Jump Point Search strategy for the 4-connected, uniform-cost grid of a solver.Maze().
+ * <p>
+ * Instead of pushing every neighbor onto the open list, the search jumps in a straight line
+ * until it reaches the goal, hits an obstacle, or finds a jump point,
+ * a cell where an obstacle forces a turn that no symmetric path could make earlier:
+ * <ul>
+ *     <li>Moving left or right, a cell is a jump point if the cell above or below it is open
+ *     while the cell above or below the previous cell is blocked.</li>
+ *     <li>Moving up or down, the same forced neighbor rule is checked to the left and right,
+ *     and the cell is also a jump point if a horizontal jump from it reaches a jump point or the goal.</li>
+ * </ul>
+ * Only jump points are pushed onto the open list, which is ordered by A* with the Manhattan heuristic,
+ * so the path found is optimal. Consecutive jump points always share a row or a column,
+ * and the path is expanded back into one Point per cell, as expected by Solver.constructKivaCommands().
+ * Jumps are iterative, so long open rows and columns do not grow the call stack.
+ * Costs are only valid for jump points marked seen in the current search (see VisitedMarks),
+ * so nothing is cleared between searches.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0800
+ * @see SearchStrategy
+ * @see AStarSearch
+ */
+public class JumpPointSearch implements SearchStrategy {
+
+    private static final int NONE = -1;
+
+    private final IntHeap open = new IntHeap();
+    private int[] cost = new int[0];   // g, the number of steps from the start to the jump point, valid if seen
+    private int[] parent = new int[0]; // the jump point this jump point was reached from, valid if seen
+    private final VisitedMarks seen = new VisitedMarks();
+    private int expanded = 0;
+
+    private Maze maze;
+    private int width;
+    private int height;
+    private int goalCell;
+
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        expanded = 0;
+        try {
+            if (!isOpen(start.getX(), start.getY())) {
+                return Collections.emptyList();
+            }
+            if (start.getX() == goal.getX() && start.getY() == goal.getY()) {
+                return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+            }
+            ensureCapacity(maze.getCellCount());
+
+            final int goalRow = goal.getX();
+            final int goalCol = goal.getY();
+            final int startCell = start.getX() * width + start.getY();
+            goalCell = goalRow * width + goalCol;
+
+            open.clear();
+            seen.mark(startCell);
+            cost[startCell] = 0;
+            parent[startCell] = NONE;
+            open.push(AStarSearch.key(AStarSearch.manhattan(start.getX(), start.getY(), goalRow, goalCol), 0), startCell);
+
+            while (!open.isEmpty()) {
+                long key = open.peekKey();
+                int cell = open.poll();
+                int g = Integer.MAX_VALUE - (int) key;
+                if (g != cost[cell]) {
+                    continue; // stale entry
+                }
+                if (cell == goalCell) {
+                    return expandPath(startCell);
+                }
+                expanded++;
+                int row = cell / width;
+                int col = cell - row * width;
+
+                if (parent[cell] == NONE) {
+                    for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                        tryJump(cell, g, row, col,
+                                FlatBreadthFirstSearch.ROW_DELTAS[direction], FlatBreadthFirstSearch.COL_DELTAS[direction],
+                                goalRow, goalCol);
+                    }
+                } else {
+                    int parentRow = parent[cell] / width;
+                    int parentCol = parent[cell] - parentRow * width;
+                    int rowStep = Integer.signum(row - parentRow);
+                    int colStep = Integer.signum(col - parentCol);
+                    if (colStep != 0) {
+                        // arrived moving horizontally, keep going and branch up and down
+                        tryJump(cell, g, row, col, 0, colStep, goalRow, goalCol);
+                        tryJump(cell, g, row, col, -1, 0, goalRow, goalCol);
+                        tryJump(cell, g, row, col, 1, 0, goalRow, goalCol);
+                    } else {
+                        // arrived moving vertically, keep going and branch left and right
+                        tryJump(cell, g, row, col, rowStep, 0, goalRow, goalCol);
+                        tryJump(cell, g, row, col, 0, -1, goalRow, goalCol);
+                        tryJump(cell, g, row, col, 0, 1, goalRow, goalCol);
+                    }
+                }
+            }
+            return Collections.emptyList();
+        } finally {
+            this.maze = null;
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Jumps from a cell in one direction and pushes the jump point found, if any, onto the open list.
+     */
+    private void tryJump(int cell, int g, int row, int col, int rowStep, int colStep, int goalRow, int goalCol) {
+        int jumpPoint = rowStep != 0
+                ? jumpVertical(row + rowStep, col, rowStep)
+                : jumpHorizontal(row, col + colStep, colStep);
+        if (jumpPoint == NONE) {
+            return;
+        }
+        int jumpRow = jumpPoint / width;
+        int jumpCol = jumpPoint - jumpRow * width;
+        int nextCost = g + Math.abs(jumpRow - row) + Math.abs(jumpCol - col);
+        if (!seen.isMarked(jumpPoint) || nextCost < cost[jumpPoint]) {
+            seen.mark(jumpPoint);
+            cost[jumpPoint] = nextCost;
+            parent[jumpPoint] = cell;
+            open.push(AStarSearch.key(nextCost + AStarSearch.manhattan(jumpRow, jumpCol, goalRow, goalCol), nextCost), jumpPoint);
+        }
+    }
+
+    /**
+     * Moves left or right from a cell until a jump point, the goal or an obstacle is found.
+     *
+     * @return the jump point cell, or NONE if the jump ran into an obstacle or off the map.
+     */
+    private int jumpHorizontal(int row, int col, int colStep) {
+        while (isOpen(row, col)) {
+            int cell = row * width + col;
+            if (cell == goalCell) {
+                return cell;
+            }
+            if ((isOpen(row - 1, col) && !isOpen(row - 1, col - colStep))
+                    || (isOpen(row + 1, col) && !isOpen(row + 1, col - colStep))) {
+                return cell;
+            }
+            col += colStep;
+        }
+        return NONE;
+    }
+
+    /**
+     * Moves up or down from a cell until a jump point, the goal or an obstacle is found.
+     * Every cell passed also looks left and right for a horizontal jump point.
+     *
+     * @return the jump point cell, or NONE if the jump ran into an obstacle or off the map.
+     */
+    private int jumpVertical(int row, int col, int rowStep) {
+        while (isOpen(row, col)) {
+            int cell = row * width + col;
+            if (cell == goalCell) {
+                return cell;
+            }
+            if ((isOpen(row, col - 1) && !isOpen(row - rowStep, col - 1))
+                    || (isOpen(row, col + 1) && !isOpen(row - rowStep, col + 1))) {
+                return cell;
+            }
+            if (jumpHorizontal(row, col + 1, 1) != NONE || jumpHorizontal(row, col - 1, -1) != NONE) {
+                return cell;
+            }
+            row += rowStep;
+        }
+        return NONE;
+    }
+
+    private boolean isOpen(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width && !maze.isObstacle(row, col);
+    }
+
+    /**
+     * Follows the jump point parents back from the goal and fills in the straight runs between them.
+     *
+     * @param startCell - the flat index of the start cell.
+     * @return a List of Points, one per cell, from start to goal.
+     */
+    private List<Point> expandPath(int startCell) {
+        List<Point> path = new ArrayList<>(cost[goalCell] + 1);
+        int cell = goalCell;
+        while (cell != startCell) {
+            int from = parent[cell];
+            int rowStep = Integer.signum(from / width - cell / width);
+            int colStep = Integer.signum(from % width - cell % width);
+            for (int step = cell; step != from; step += rowStep * width + colStep) {
+                path.add(new Point(step / width, step % width));
+            }
+            cell = from;
+        }
+        path.add(new Point(startCell / width, startCell % width));
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Grows the scratch arrays if needed and clears the seen marks for the next search.
+     *
+     * @param cells - the number of cells in the maze.
+     */
+    private void ensureCapacity(int cells) {
+        if (cost.length < cells) {
+            cost = new int[cells];
+            parent = new int[cells];
+        }
+        seen.reset(cells);
+    }
+}
@@ -0,0 +1,203 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Breadth First distance tables from a few landmark cells of a solver.Maze(), used by AltSearch
+ * (A*, Landmarks and the Triangle inequality).
+ * <p>
+ * For any landmark {@code L}, the triangle inequality gives {@code d(n, goal) >= |d(L, goal) - d(L, n)|},
+ * so the largest such difference over all landmarks is an admissible heuristic.
+ * Unlike the Manhattan distance it accounts for walls, so on maps with long walls A* expands far fewer cells.
+ * <p>
+ * Landmarks are the open cells nearest to points spaced evenly around the edge of the map,
+ * so they sit behind most of the map as seen from any other cell.
+ * The table for each landmark is an independent Breadth First search, so they are computed in parallel.
+ * Distances are stored as {@code char} (unsigned 16 bit) when they all fit, otherwise as {@code int}.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1500
+ * @see AltSearch
+ * @see DistanceField
+ */
+public class LandmarkTable {
+
+    private static final char COMPACT_UNREACHABLE = Character.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    private final long mazeVersion;
+    private final int[] landmarks;
+    private final char[][] compactDistances; // used when every distance fits in 16 bits
+    private final int[][] distances;         // used otherwise
+    private final long buildMillis;
+
+    private LandmarkTable(Maze maze, long mazeVersion, int[] landmarks, char[][] compactDistances, int[][] distances,
+                          long buildMillis) {
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.mazeVersion = mazeVersion;
+        this.landmarks = landmarks;
+        this.compactDistances = compactDistances;
+        this.distances = distances;
+        this.buildMillis = buildMillis;
+    }
+
+    /**
+     * Chooses landmarks for a maze and computes their distance tables in parallel.
+     *
+     * @param maze          - a floor map in solver.Maze format.
+     * @param landmarkCount - the number of landmarks to use, 8 to 16 is usually enough.
+     * @return the LandmarkTable for the maze.
+     */
+    public static LandmarkTable build(Maze maze, int landmarkCount) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("landmark count must be at least 1 (was " + landmarkCount + ")");
+        }
+        long started = System.currentTimeMillis();
+        long version = maze.getVersion(); // taken first, so a table built while the maze changes is already stale
+        final int[] landmarks = chooseLandmarks(maze, landmarkCount);
+        final int[][] tables = new int[landmarks.length][];
+        IntStream.range(0, landmarks.length).parallel()
+                .forEach(i -> tables[i] = DistanceField.distancesFrom(maze, landmarks[i]));
+
+        int longest = 0;
+        for (int[] table : tables) {
+            for (int distance : table) {
+                longest = Math.max(longest, distance);
+            }
+        }
+        if (longest < COMPACT_UNREACHABLE) {
+            final char[][] compact = new char[tables.length][];
+            IntStream.range(0, tables.length).parallel().forEach(i -> {
+                int[] table = tables[i];
+                char[] packed = new char[table.length];
+                for (int cell = 0; cell < table.length; cell++) {
+                    packed[cell] = table[cell] == DistanceField.UNREACHABLE ? COMPACT_UNREACHABLE : (char) table[cell];
+                }
+                compact[i] = packed;
+                tables[i] = null;
+            });
+            return new LandmarkTable(maze, version, landmarks, compact, null, System.currentTimeMillis() - started);
+        }
+        return new LandmarkTable(maze, version, landmarks, null, tables, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Picks the open cell nearest to each of {@code count} points spaced evenly around the edge of the map,
+     * skipping cells already picked.
+     */
+    private static int[] chooseLandmarks(Maze maze, int count) {
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        int perimeter = 2 * (width + height);
+        int[] chosen = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int along = (int) ((long) perimeter * i / count);
+            int anchorRow;
+            int anchorCol;
+            if (along < width) {
+                anchorRow = 0;
+                anchorCol = along;
+            } else if (along < width + height) {
+                anchorRow = along - width;
+                anchorCol = width - 1;
+            } else if (along < 2 * width + height) {
+                anchorRow = height - 1;
+                anchorCol = width - 1 - (along - width - height);
+            } else {
+                anchorRow = height - 1 - (along - 2 * width - height);
+                anchorCol = 0;
+            }
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int distance = AStarSearch.manhattan(row, col, anchorRow, anchorCol);
+                    if (distance < bestDistance && !maze.isObstacle(row, col)
+                            && !contains(chosen, found, row * width + col)) {
+                        best = row * width + col;
+                        bestDistance = distance;
+                    }
+                }
+            }
+            if (best >= 0) {
+                chosen[found++] = best;
+            }
+        }
+        return Arrays.copyOf(chosen, found);
+    }
+
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of moves from a landmark to a cell.
+     *
+     * @param landmark - the index of the landmark.
+     * @param cell     - the flat index ({@code row * width + col}) of the cell.
+     * @return the number of moves, or DistanceField.UNREACHABLE.
+     */
+    int distance(int landmark, int cell) {
+        if (compactDistances != null) {
+            char distance = compactDistances[landmark][cell];
+            return distance == COMPACT_UNREACHABLE ? DistanceField.UNREACHABLE : distance;
+        }
+        return distances[landmark][cell];
+    }
+
+    /**
+     * Returns true if the maze has not changed since this table was built from it.
+     *
+     * @param maze - the maze this table was built from.
+     * @return true if the table still describes the maze.
+     */
+    public boolean isCurrent(Maze maze) {
+        return maze.getVersion() == mazeVersion && maze.getWidth() == width && maze.getHeight() == height;
+    }
+
+    /**
+     * Returns the number of landmarks in the table.
+     *
+     * @return the number of landmarks.
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Returns the location of a landmark.
+     *
+     * @param landmark - the index of the landmark.
+     * @return the landmark location point (row, col).
+     */
+    public Point getLandmark(int landmark) {
+        return new Point(landmarks[landmark] / width, landmarks[landmark] % width);
+    }
+
+    /**
+     * Returns the time taken to choose the landmarks and compute their tables.
+     *
+     * @return the build time in milliseconds.
+     */
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Returns the size of the distance tables.
+     *
+     * @return the size of the distance tables in bytes.
+     */
+    public long getTableBytes() {
+        return (long) landmarks.length * width * height * (compactDistances != null ? Character.BYTES : Integer.BYTES);
+    }
+}
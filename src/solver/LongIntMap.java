@@ -0,0 +1,105 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from {@code long} keys to {@code int} values, kept in two primitive arrays.
+ * <p>
+ * Used to index space-time states and constraints, so no boxed keys or entry objects are created.
+ * Entries can not be removed one at a time; clear() empties the whole map.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1900
+ * @see SpaceTimeSearch
+ */
+final class LongIntMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+    private int mask;
+
+    LongIntMap() {
+        this(64);
+    }
+
+    LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    /**
+     * Returns the value for a key.
+     *
+     * @param key     - the key, any value but Long.MIN_VALUE.
+     * @param missing - the value to return if the key is not in the map.
+     * @return the value for the key, or missing.
+     */
+    int get(long key, int missing) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    /**
+     * Adds a key or replaces its value.
+     *
+     * @param key   - the key, any value but Long.MIN_VALUE.
+     * @param value - the value.
+     */
+    void put(long key, int value) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[keys.length];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
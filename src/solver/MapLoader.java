@@ -0,0 +1,208 @@
+package solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads floor map files into a solver.Maze() by memory-mapping them, for maps too large to read into a String.
+ * <p>
+ * The file is mapped with FileChannel.map() one window of up to a gigabyte at a time, so files larger than 2 GB
+ * can be read, and the bytes are scanned straight into the Maze's obstacle bits without creating a String per line.
+ * Each ASCII byte is one cell. A file holding any other byte, such as the UTF-8 no-break space that
+ * kivaworld.FloorMapObject reads as an empty cell, is decoded as UTF-8 and read with MapParser instead.
+ * Either way the map is read exactly like Maze(String): surrounding whitespace is trimmed, lines end with
+ * {@code \n} or {@code \r\n}, and every line must be as long as the first.
+ * Files saved by BinaryMap are recognized by their header and read with BinaryMap instead.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0100
+ * @see Maze#Maze(File)
+ * @see BinaryMap
+ */
+public final class MapLoader {
+
+    /**
+     * The largest part of a file mapped at one time.
+     */
+    static final long WINDOW = 1L << 30;
+
+    private static final int MAX_WORDS = Integer.MAX_VALUE - 8;
+
+    private MapLoader() {
+    }
+
+    /**
+     * Loads a floor map file, text or binary.
+     *
+     * @param file - the floor map file.
+     * @return the Maze.
+     * @throws IOException              if the file can not be read.
+     * @throws IllegalArgumentException if the file does not hold a valid map.
+     */
+    public static Maze load(File file) throws IOException {
+        Maze maze = new Maze();
+        load(file, maze);
+        return maze;
+    }
+
+    /**
+     * Loads a floor map file into a Maze that has no layout yet.
+     */
+    static void load(File file, Maze maze) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (BinaryMap.isBinaryMap(channel)) {
+                BinaryMap.read(channel, file, maze);
+                return;
+            }
+            long size = channel.size();
+            long begin = firstNonBlank(channel, 0, size);
+            long end = lastNonBlank(channel, begin, size) + 1;
+            if (begin >= end) {
+                throw new IllegalArgumentException("empty lines data");
+            }
+            int width = firstLineWidth(channel, begin, end);
+            long maxRows = (end - begin - width) / (width + 1) + 1;
+            if ((maxRows * width + 63) >>> 6 > MAX_WORDS) {
+                throw new IllegalArgumentException("map of " + maxRows + " rows of " + width + " cells is too large");
+            }
+            long[] obstacles = new long[(int) ((maxRows * width + 63) >>> 6)];
+            Point kiva = null;
+            Point pod = null;
+            Point dropZone = null;
+
+            int row = 0;
+            int col = 0;
+            long bit = 0; // row * width + col
+            byte previous = 0;
+            for (long position = begin; position < end; position += WINDOW) {
+                int length = (int) Math.min(WINDOW, end - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++) {
+                    byte next = window.get(i);
+                    if (next < 0) {
+                        // not ASCII, seen before the length of its line is checked
+                        loadDecoded(file, size, maze);
+                        return;
+                    }
+                    if (next == '\n') {
+                        checkLength(row, previous == '\r' ? col - 1 : col, width);
+                        row++;
+                        col = 0;
+                        bit = (long) row * width;
+                    } else {
+                        if (col < width) {
+                            switch (next) {
+                                case '#':
+                                case '*':
+                                case '-':
+                                case '|':
+                                    obstacles[(int) (bit >>> 6)] |= 1L << bit;
+                                    break;
+                                case 'S':
+                                case 'K':
+                                    kiva = new Point(row, col);
+                                    break;
+                                case 'P':
+                                    pod = new Point(row, col);
+                                    break;
+                                case 'E':
+                                case 'D':
+                                    dropZone = new Point(row, col);
+                                    break;
+                                default:
+                            }
+                            bit++;
+                        }
+                        col++;
+                    }
+                    previous = next;
+                }
+            }
+            checkLength(row, col, width);
+            maze.setLayout(row + 1, width, obstacles, kiva, pod, dropZone);
+        }
+    }
+
+    /**
+     * Loads a text file that is not all ASCII by decoding it as UTF-8, with malformed bytes read as
+     * the replacement character, which is an empty cell.
+     */
+    private static void loadDecoded(File file, long size, Maze maze) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            maze.initializeMaze(reader, size);
+        }
+    }
+
+    private static void checkLength(int row, int length, int width) {
+        if (length != width) {
+            throw new IllegalArgumentException("line " + (row + 1) + " wrong length (was " + length
+                    + " but should be " + width + ")");
+        }
+    }
+
+    /**
+     * Returns the number of cells in the first line, not counting a {@code \r} before its {@code \n}.
+     */
+    private static int firstLineWidth(FileChannel channel, long begin, long end) throws IOException {
+        byte previous = 0;
+        for (long position = begin; position < end; position += WINDOW) {
+            int length = (int) Math.min(WINDOW, end - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                byte next = window.get(i);
+                if (next == '\n') {
+                    return lineWidth(position + i - begin - (previous == '\r' ? 1 : 0));
+                }
+                previous = next;
+            }
+        }
+        return lineWidth(end - begin);
+    }
+
+    private static int lineWidth(long width) {
+        if (width > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("line 1 is too long (" + width + " cells)");
+        }
+        return (int) width;
+    }
+
+    /**
+     * Returns the position of the first byte that is not whitespace, as String.trim() sees it, or end.
+     */
+    private static long firstNonBlank(FileChannel channel, long begin, long end) throws IOException {
+        for (long position = begin; position < end; position += WINDOW) {
+            int length = (int) Math.min(WINDOW, end - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if ((window.get(i) & 0xFF) > ' ') {
+                    return position + i;
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the position of the last byte that is not whitespace, or begin - 1.
+     */
+    private static long lastNonBlank(FileChannel channel, long begin, long end) throws IOException {
+        for (long limit = end; limit > begin; limit -= WINDOW) {
+            long position = Math.max(begin, limit - WINDOW);
+            int length = (int) (limit - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if ((window.get(i) & 0xFF) > ' ') {
+                    return position + i;
+                }
+            }
+        }
+        return begin - 1;
+    }
+}
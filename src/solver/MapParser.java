@@ -0,0 +1,211 @@
+package solver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single pass, streaming parser that splits a floor map into rows for solver.Maze() and kivaworld.FloorMap.
+ * <p>
+ * Characters are read once from a Reader and each row is handed to a RowHandler as soon as it is complete,
+ * in a buffer that is reused for the next row, so no String is created per line and the whole map is
+ * never held as text. Rows end with {@code \n} or {@code \r\n}.
+ * <p>
+ * Two ways of treating the ends of the map are supported, matching how the maps were read before:
+ * <ul>
+ * <li>TRIM, used by Maze, ignores whitespace before the first and after the last visible character,
+ *     like String.trim().</li>
+ * <li>DROP_TRAILING_EMPTY_ROWS, used by FloorMap, keeps every character and only ignores empty rows at the end,
+ *     like String.split().</li>
+ * </ul>
+ * Checking row lengths and characters is left to the RowHandler, so each class keeps its own error messages.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0000
+ * @see Maze
+ * @see MapLoader
+ */
+public final class MapParser {
+
+    /**
+     * How the parser treats whitespace and empty rows at the ends of the map.
+     */
+    public enum Ends {
+        /**
+         * Ignore whitespace before the first and after the last visible character, like String.trim().
+         */
+        TRIM,
+        /**
+         * Keep every character, only ignore empty rows at the end, like String.split().
+         */
+        DROP_TRAILING_EMPTY_ROWS
+    }
+
+    /**
+     * Receives the rows of a map, in order, as they are parsed.
+     */
+    public interface RowHandler {
+
+        /**
+         * Receives one row. The buffer is reused for the next row, so the handler must copy what it keeps.
+         *
+         * @param row    - the row number, from 0.
+         * @param cells  - the characters of the row, without the line ending.
+         * @param length - the number of characters in the row.
+         */
+        void row(int row, char[] cells, int length);
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Ends ends;
+    private final RowHandler handler;
+
+    private char[] line = new char[128];     // the row being read
+    private int lineLength = 0;
+    private char[] held = new char[128];     // TRIM: the last row with a visible character, not handed on yet
+    private int heldLength = -1;             // -1 if no row is held
+    private final List<char[]> pending = new ArrayList<>(); // rows after held that are all whitespace or empty
+    private boolean started = false;         // TRIM: a visible character has been seen
+    private int rows = 0;
+
+    private MapParser(Ends ends, RowHandler handler) {
+        this.ends = ends;
+        this.handler = handler;
+    }
+
+    /**
+     * Parses a map from a String.
+     *
+     * @param map     - the map text.
+     * @param ends    - how whitespace and empty rows at the ends of the map are treated.
+     * @param handler - receives each row.
+     * @return the number of rows handed to the handler.
+     */
+    public static int parse(String map, Ends ends, RowHandler handler) {
+        try {
+            return parse(new StringReader(map), ends, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringReader does not throw
+        }
+    }
+
+    /**
+     * Parses a map from a Reader, reading each character once.
+     *
+     * @param map     - the map text, not closed by the parser.
+     * @param ends    - how whitespace and empty rows at the ends of the map are treated.
+     * @param handler - receives each row.
+     * @return the number of rows handed to the handler.
+     * @throws IOException if the Reader fails.
+     */
+    public static int parse(Reader map, Ends ends, RowHandler handler) throws IOException {
+        MapParser parser = new MapParser(ends, handler);
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = map.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                parser.accept(buffer[i]);
+            }
+        }
+        parser.finish();
+        return parser.rows;
+    }
+
+    private void accept(char next) {
+        if (!started && ends == Ends.TRIM) {
+            if (next <= ' ') {
+                return;
+            }
+            started = true;
+        }
+        if (next == '\n') {
+            if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                lineLength--;
+            }
+            endRow();
+            lineLength = 0;
+            return;
+        }
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = next;
+    }
+
+    /**
+     * Hands on a complete row, unless it may turn out to be at the end of the map.
+     */
+    private void endRow() {
+        if (ends == Ends.DROP_TRAILING_EMPTY_ROWS) {
+            if (lineLength == 0) {
+                pending.add(new char[0]);
+            } else {
+                flushPending();
+                deliver(line, lineLength);
+            }
+            return;
+        }
+        if (isBlank(line, lineLength)) {
+            pending.add(Arrays.copyOf(line, lineLength));
+            return;
+        }
+        if (heldLength >= 0) {
+            deliver(held, heldLength);
+            flushPending();
+        }
+        char[] swap = held;
+        held = line;
+        heldLength = lineLength;
+        line = swap;
+    }
+
+    private void finish() {
+        if (ends == Ends.DROP_TRAILING_EMPTY_ROWS) {
+            if (lineLength > 0) {
+                flushPending();
+                deliver(line, lineLength);
+            }
+            return;
+        }
+        if (!isBlank(line, lineLength)) {
+            if (heldLength >= 0) {
+                deliver(held, heldLength);
+                flushPending();
+            }
+            held = line;
+            heldLength = lineLength;
+        }
+        if (heldLength >= 0) {
+            int length = heldLength;
+            while (length > 0 && held[length - 1] <= ' ') {
+                length--;
+            }
+            deliver(held, length);
+        }
+    }
+
+    private void flushPending() {
+        for (char[] row : pending) {
+            deliver(row, row.length);
+        }
+        pending.clear();
+    }
+
+    private void deliver(char[] cells, int length) {
+        handler.row(rows++, cells, length);
+    }
+
+    private static boolean isBlank(char[] cells, int length) {
+        for (int i = 0; i < length; i++) {
+            if (cells[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,14 +2,22 @@ package solver;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Maze class for the solver.
- * Creates a 2D array from a file,
- * and populates the array with objects represented in the maze text file.
+ * Reads a floor map from a String with MapParser, or from a text or binary file with MapLoader,
+ * and records the obstacles, Kiva, pod and drop zone found in it.
+ *
+ * <p>
+ * Obstacles are kept one bit per cell in a flat {@code long[]}, and the Kiva, pod and drop zone are kept
+ * as coordinates, so a floor map takes an eighth of a byte per cell. Visited marks are only allocated
+ * the first time they are used. A floor of more than Integer.MAX_VALUE cells can be loaded and queried,
+ * but setVisited() and the searches index cells with an {@code int} and reject it with an IllegalArgumentException.
+ * A Maze can be frozen (see isFrozen()), after which it can not be changed and is safe to share.
  *
  * This is a modified version of <a href = "https://github.com/eugenp/tutorials/blob/master/algorithms-modules/algorithms-miscellaneous-2/src/main/java/com/baeldung/algorithms/maze/solver/Maze.java">
  *     com.baeldung.algorithms.maze.solver</a>
@@ -22,19 +30,28 @@ public class Maze {
     private static final int DROP_ZONE = 4;
     private static final int PATH = 5;
 
-    private int[][] maze;
-    private boolean[][] visited;
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private long[] obstacles;      // bit (row * width + col) is set for an obstacle
+    private int height;
+    private int width;
+    private VisitedMarks visited = null;
     private Point initialKivaLocation;
     private Point podLocation = null;
     private Point dropZoneLocation;
+    private volatile long version = VERSIONS.incrementAndGet();
+    private volatile boolean frozen = false;
 
+    /**
+     * Loads a text or binary floor map file with MapLoader, which memory-maps a text file instead of reading it
+     * into a String, and reads a binary file (see BinaryMap) straight into the obstacle bits.
+     * If the file can not be read, the default map is used.
+     *
+     * @param maze - the floor map file.
+     */
     public Maze(File maze) {
-        StringBuilder fileText = new StringBuilder();
-        try (Scanner input = new Scanner(maze)) {
-            while (input.hasNextLine()) {
-                fileText.append(input.nextLine()).append("\n");
-                initializeMaze(fileText.toString());
-            }
+        try {
+            MapLoader.load(maze, this);
         } catch (IOException e) {
             System.out.println("File not found or other IO error, using default map.");
             initializeMaze(CreateMap.defaultMapString());
@@ -45,56 +62,137 @@ public class Maze {
         initializeMaze(map);
     }
 
+    /**
+     * Creates a Maze with no layout, for MapLoader to fill in with setLayout().
+     */
+    Maze() {
+    }
+
+    /**
+     * Sets the layout of a Maze created by a loader.
+     *
+     * @param height    - the number of rows.
+     * @param width     - the number of columns.
+     * @param obstacles - bit {@code row * width + col} set for each obstacle, may be longer than needed.
+     * @param kiva      - the initial Kiva location.
+     * @param pod       - the pod location, or null.
+     * @param dropZone  - the drop zone location.
+     */
+    void setLayout(int height, int width, long[] obstacles, Point kiva, Point pod, Point dropZone) {
+        int words = (int) (((long) height * width + 63) >>> 6);
+        this.height = height;
+        this.width = width;
+        this.obstacles = obstacles.length == words ? obstacles : Arrays.copyOf(obstacles, words);
+        this.initialKivaLocation = kiva;
+        this.podLocation = pod;
+        this.dropZoneLocation = dropZone;
+        this.visited = null;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
     private void initializeMaze(String text) throws IllegalArgumentException {
-        if (text == null || (text = text.trim()).length() == 0) {
+        if (text == null) {
             throw new IllegalArgumentException("empty lines data");
         }
+        LayoutBuilder layout = new LayoutBuilder(text.length());
+        setLayout(MapParser.parse(text, MapParser.Ends.TRIM, layout), layout);
+    }
 
-        String[] lines = text.split("[\r]?\n");
-        maze = new int[lines.length][lines[0].length()];
-        visited = new boolean[lines.length][lines[0].length()];
+    /**
+     * Reads the layout of a Maze created by a loader from decoded text, exactly like Maze(String).
+     *
+     * @param text   - the map text, not closed.
+     * @param length - about how many characters the text holds, to size the obstacle bits.
+     * @throws IOException if the Reader fails.
+     */
+    void initializeMaze(Reader text, long length) throws IOException {
+        LayoutBuilder layout = new LayoutBuilder((int) Math.min(length, Integer.MAX_VALUE));
+        setLayout(MapParser.parse(text, MapParser.Ends.TRIM, layout), layout);
+    }
 
-        for (int row = 0; row < getHeight(); row++) {
-            if (lines[row].length() != getWidth()) {
-                throw new IllegalArgumentException("line " + (row + 1) + " wrong length (was " + lines[row].length() 
-                        + " but should be " + getWidth() + ")");
-            }
+    private void setLayout(int rows, LayoutBuilder layout) {
+        if (rows == 0) {
+            throw new IllegalArgumentException("empty lines data");
+        }
+        setLayout(rows, layout.width, layout.obstacles, layout.kiva, layout.pod, layout.dropZone);
+    }
 
-            for (int col = 0; col < getWidth(); col++) {
-                switch (lines[row].charAt(col)){
+    /**
+     * Builds the obstacle bits one row at a time as MapParser reads them.
+     */
+    private static final class LayoutBuilder implements MapParser.RowHandler {
+        private final int textLength;
+        private int width;
+        private long[] obstacles;
+        private Point kiva;
+        private Point pod;
+        private Point dropZone;
+
+        LayoutBuilder(int textLength) {
+            this.textLength = textLength;
+        }
+
+        @Override
+        public void row(int row, char[] cells, int length) {
+            if (row == 0) {
+                width = length;
+                long expectedRows = textLength / (width + 1L) + 1;
+                obstacles = new long[(int) ((expectedRows * width + 63) >>> 6)];
+            } else if (length != width) {
+                throw new IllegalArgumentException("line " + (row + 1) + " wrong length (was " + length
+                        + " but should be " + width + ")");
+            }
+            long first = (long) row * width;
+            if (((first + width + 63) >>> 6) > obstacles.length) {
+                obstacles = Arrays.copyOf(obstacles, (int) Math.max((first + width + 63) >>> 6, obstacles.length * 2L));
+            }
+            for (int col = 0; col < width; col++) {
+                switch (cells[col]) {
                     case '#' :
                     case '*' :
                     case '-' :
                     case '|' :
-                        maze[row][col] = OBSTACLE;
+                        obstacles[(int) ((first + col) >>> 6)] |= 1L << (first + col);
                         break;
                     case 'S' :
                     case 'K' :
-                        maze[row][col] = START;
-                        initialKivaLocation = new Point(row, col);
+                        kiva = new Point(row, col);
                         break;
                     case 'P' :
-                        maze[row][col] = POD;
-                        podLocation = new Point(row, col);
+                        pod = new Point(row, col);
                         break;
                     case 'E' :
                     case 'D' :
-                        maze[row][col] = DROP_ZONE;
-                        dropZoneLocation = new Point(row, col);
+                        dropZone = new Point(row, col);
                         break;
                     default:
-                        maze[row][col] = EMPTY;
                 }
             }
         }
     }
 
     public int getHeight() {
-        return maze.length;
+        return height;
     }
 
     public int getWidth() {
-        return maze[0].length;
+        return width;
+    }
+
+    /**
+     * Returns the number of cells, for the visited marks and the searches that index cells with an {@code int}.
+     * The obstacle bits are indexed with a {@code long}, so a Maze can hold a larger floor than this allows.
+     *
+     * @return height * width.
+     * @throws IllegalArgumentException if the floor has more than Integer.MAX_VALUE cells.
+     */
+    int getCellCount() {
+        long cells = (long) height * width;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("a " + height + " x " + width + " floor has " + cells
+                    + " cells, too many to search, the most is " + Integer.MAX_VALUE);
+        }
+        return (int) cells;
     }
 
     public Point getInitialKivaLocation() {
@@ -126,19 +224,142 @@ public class Maze {
     }
 
     public boolean isExplored(int row, int col) {
-        return visited[row][col];
+        return visited != null && visited.isMarked(row * width + col); // visited marks exist only if the cells fit an int
     }
 
     public boolean isObstacle(int row, int col) {
-        return maze[row][col] == OBSTACLE;
+        long bit = (long) row * width + col;
+        return (obstacles[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Adds or removes an obstacle at a location in the maze.
+     * The Kiva, pod and drop zone locations can not be made obstacles.
+     *
+     * @param row      - the row of the location.
+     * @param col      - the column of the location.
+     * @param obstacle - true to place an obstacle at the location, false to clear it.
+     * @throws IllegalArgumentException if the location is the Kiva, pod or drop zone location.
+     * @throws IllegalStateException    if the maze is frozen.
+     */
+    public void setObstacle(int row, int col, boolean obstacle) {
+        checkNotFrozen();
+        if (isAt(initialKivaLocation, row, col) || isAt(podLocation, row, col) || isAt(dropZoneLocation, row, col)) {
+            throw new IllegalArgumentException("can not change the Kiva, pod or drop zone location at (" + row + "," + col + ")");
+        }
+        if (isObstacle(row, col) != obstacle) {
+            setBit(row, col, obstacle);
+            version = VERSIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Makes the maze read-only, so it can be shared, for example by MazeCache.
+     * After this, setObstacle() and setVisited() throw an IllegalStateException.
+     */
+    void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Tells whether the maze is read-only. A frozen maze can be solved by any number of Solvers at once.
+     *
+     * @return true if the maze can not be changed.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("maze is frozen and can not be changed");
+        }
+    }
+
+    /**
+     * Returns the version of the maze layout.
+     * Versions are unique across all Maze objects and change every time an obstacle is added or removed,
+     * so anything computed from the layout can be cached under the version it was computed from.
+     *
+     * @return the current version of the maze layout.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Copies the open cells into a bitset with each row starting on a new word, bit {@code col % 64}
+     * of word {@code row * wordsPerRow + col / 64}. Bits past the last column are left clear.
+     *
+     * @param wordsPerRow - the number of words per row, at least {@code (width + 63) / 64}.
+     * @param into        - the bitset to fill, at least {@code height * wordsPerRow} words.
+     */
+    void copyOpenRows(int wordsPerRow, long[] into) {
+        for (int row = 0; row < height; row++) {
+            long first = (long) row * width;
+            for (int word = 0; word < wordsPerRow; word++) {
+                int cols = Math.min(64, width - word * 64);
+                long bits = 0;
+                if (cols > 0) {
+                    bits = ~obstacleBits(first + word * 64L);
+                    if (cols < 64) {
+                        bits &= (1L << cols) - 1;
+                    }
+                }
+                into[row * wordsPerRow + word] = bits;
+            }
+        }
+    }
+
+    /**
+     * Returns the obstacle bits, bit {@code row * width + col} set for each obstacle, for BinaryMap to save.
+     * The array is the maze's own and must not be changed.
+     */
+    long[] obstacleWords() {
+        return obstacles;
+    }
+
+    /**
+     * Returns the 64 obstacle bits starting at a flat bit index, bits past the end are clear.
+     */
+    private long obstacleBits(long from) {
+        int index = (int) (from >>> 6);
+        int shift = (int) (from & 63);
+        long bits = obstacles[index] >>> shift;
+        if (shift != 0 && index + 1 < obstacles.length) {
+            bits |= obstacles[index + 1] << (64 - shift);
+        }
+        return bits;
+    }
+
+    private static boolean isAt(Point location, int row, int col) {
+        return location != null && location.getX() == row && location.getY() == col;
+    }
+
+    private void setBit(int row, int col, boolean obstacle) {
+        long bit = (long) row * width + col;
+        if (obstacle) {
+            obstacles[(int) (bit >>> 6)] |= 1L << bit;
+        } else {
+            obstacles[(int) (bit >>> 6)] &= ~(1L << bit);
+        }
     }
 
     void setPodLocation(Point podLocation){ //used for start to end maze with no pod
+        checkNotFrozen();
         this.podLocation = podLocation;
     }
 
     public void setVisited(int row, int col, boolean value) {
-        visited[row][col] = value;
+        checkNotFrozen();
+        if (visited == null) {
+            visited = new VisitedMarks(getCellCount());
+        }
+        if (value) {
+            visited.mark(row * width + col);
+        } else {
+            visited.unmark(row * width + col);
+        }
     }
 
     public boolean isValidLocation(int row, int col) {
@@ -146,9 +367,7 @@ public class Maze {
     }
 
     public void printPath(List<Point> path) {
-        int[][] tempMaze = Arrays.stream(maze)
-            .map(int[]::clone)
-            .toArray(int[][]::new);
+        int[][] tempMaze = toGrid();
         for (Point coordinates : path) {
             if (isInitialKivaLocation(coordinates.getX(), coordinates.getY()) || isDropZone(coordinates.getX(), coordinates.getY())) {
                 continue;
@@ -190,7 +409,66 @@ public class Maze {
         return result.toString();
     }
 
+    /**
+     * Returns the map as text that Maze(String) and FloorMap read back as the same layout,
+     * printed the way printPath() prints it: '-' for obstacles on the top and bottom rows,
+     * '|' on the first and last columns, '*' elsewhere, and K, P and D.
+     *
+     * @return the floor map as a String.
+     */
+    public String toMapString() {
+        StringBuilder result = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, (width + 1L) * height));
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (isAt(initialKivaLocation, row, col)) {
+                    result.append('K');
+                } else if (isAt(podLocation, row, col)) {
+                    result.append('P');
+                } else if (isAt(dropZoneLocation, row, col)) {
+                    result.append('D');
+                } else if (!isObstacle(row, col)) {
+                    result.append(' ');
+                } else if (row == 0 || row == height - 1) {
+                    result.append('-');
+                } else if (col == 0 || col == width - 1) {
+                    result.append('|');
+                } else {
+                    result.append('*');
+                }
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the maze as a grid of cell codes, the format toString(int[][]) prints.
+     */
+    private int[][] toGrid() {
+        int[][] grid = new int[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                grid[row][col] = isObstacle(row, col) ? OBSTACLE : EMPTY;
+            }
+        }
+        if (initialKivaLocation != null) {
+            grid[initialKivaLocation.getX()][initialKivaLocation.getY()] = START;
+        }
+        if (podLocation != null) {
+            grid[podLocation.getX()][podLocation.getY()] = POD;
+        }
+        if (dropZoneLocation != null) {
+            grid[dropZoneLocation.getX()][dropZoneLocation.getY()] = DROP_ZONE;
+        }
+        return grid;
+    }
+
+    /**
+     * Clears every visited mark. Marks are stamped with an epoch, so this takes constant time.
+     */
     public void reset() {
-        for (boolean[] booleans : visited) Arrays.fill(booleans, false);
+        if (visited != null) {
+            visited.clear();
+        }
     }
 }
@@ -0,0 +1,178 @@
+package solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of floor maps loaded from files, so a map that is solved again and again
+ * is read and parsed only once.
+ * <p>
+ * Maps are keyed by their canonical path, and a cached map is only used while the file has the same
+ * last-modified time and length it had when it was loaded; otherwise the file is loaded again.
+ * Mazes are loaded with MapLoader, so text and binary maps are both accepted, and are frozen (see Maze.isFrozen())
+ * before they are handed out, so one cached Maze can be shared by every caller and Solver.
+ * <p>
+ * The cache is bounded by the memory the cached layouts take, an eighth of a byte per cell. When it is full,
+ * the least recently used maps are evicted; the most recently loaded map is always kept.
+ * Files are loaded outside the lock, so a slow load does not hold up requests for other maps.
+ * Hits, misses and evictions are counted.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0200
+ * @see SolveMap#setMazeCache(MazeCache)
+ * @see MapLoader
+ */
+public class MazeCache {
+
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * A cached maze and the file state it was loaded from.
+     */
+    private static final class Entry {
+        final long lastModified;
+        final long length;
+        final Maze maze;
+        final long bytes;
+
+        Entry(long lastModified, long length, Maze maze) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.maze = maze;
+            this.bytes = maze.obstacleWords().length * (long) Long.BYTES;
+        }
+    }
+
+    /**
+     * Creates a cache that holds up to maxBytes of map layouts.
+     *
+     * @param maxBytes - the most memory the cached layouts may take, in bytes.
+     * @throws IllegalArgumentException if maxBytes is less than 1.
+     */
+    public MazeCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maximum size must be at least 1 byte (was " + maxBytes + ")");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the frozen Maze for a file, loading it if it is not cached or the file has changed.
+     *
+     * @param file - the floor map file, text or binary.
+     * @return the Maze, shared with every other caller.
+     * @throws IOException              if the file can not be read.
+     * @throws IllegalArgumentException if the file does not hold a valid map.
+     */
+    public Maze get(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        synchronized (this) {
+            Entry entry = entries.get(path);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                hits++;
+                return entry.maze;
+            }
+            misses++;
+        }
+        Maze maze = MapLoader.load(file);
+        maze.freeze();
+        Entry loaded = new Entry(lastModified, length, maze);
+        synchronized (this) {
+            Entry replaced = entries.put(path, loaded);
+            if (replaced != null) {
+                bytes -= replaced.bytes;
+            }
+            bytes += loaded.bytes;
+            evict();
+        }
+        return maze;
+    }
+
+    /**
+     * Removes the least recently used maps until the cache fits, keeping the newest.
+     */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && entries.size() > 1) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes a file's map from the cache.
+     *
+     * @param file - the floor map file to forget.
+     * @throws IOException if the file's canonical path can not be found.
+     */
+    public synchronized void invalidate(File file) throws IOException {
+        Entry removed = entries.remove(file.getCanonicalPath());
+        if (removed != null) {
+            bytes -= removed.bytes;
+        }
+    }
+
+    /**
+     * Removes every map from the cache. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the number of maps in the cache.
+     *
+     * @return the number of cached maps.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the memory taken by the cached layouts.
+     *
+     * @return the size of the cached layouts, in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of requests answered with a cached map.
+     *
+     * @return the number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests that had to load the file, because it was not cached or had changed.
+     *
+     * @return the number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of maps removed to keep the cache within its size.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
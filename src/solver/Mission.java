@@ -0,0 +1,66 @@
+package solver;
+
+/**
+ * One Kiva's mission on a shared floor: from its start to a pod, then on to a drop zone.
+ * <p>
+ * Locations are Points in reflected {@code (row, col)} format, the same format used by Maze and Solver.
+ * A mission without a pod goes straight from the start to the drop zone.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1900
+ * @see ConflictBasedSearch
+ * @see SpaceTimeSearch
+ */
+public class Mission {
+
+    private final Point start;
+    private final Point pod;
+    private final Point dropZone;
+
+    /**
+     * Creates a mission that picks up a pod.
+     *
+     * @param start    - the Kiva's starting location point (row, col).
+     * @param pod      - the pod location point (row, col), or null to go straight to the drop zone.
+     * @param dropZone - the drop zone location point (row, col), where the Kiva stays when it is done.
+     */
+    public Mission(Point start, Point pod, Point dropZone) {
+        if (start == null || dropZone == null) {
+            throw new IllegalArgumentException("a mission needs a start and a drop zone");
+        }
+        this.start = start;
+        this.pod = pod;
+        this.dropZone = dropZone;
+    }
+
+    /**
+     * Creates a mission that goes straight from the start to the drop zone.
+     *
+     * @param start    - the Kiva's starting location point (row, col).
+     * @param dropZone - the drop zone location point (row, col).
+     */
+    public Mission(Point start, Point dropZone) {
+        this(start, null, dropZone);
+    }
+
+    public Point getStart() {
+        return start;
+    }
+
+    public Point getPod() {
+        return pod;
+    }
+
+    public Point getDropZone() {
+        return dropZone;
+    }
+
+    public boolean hasPod() {
+        return pod != null;
+    }
+
+    @Override
+    public String toString() {
+        return start + (pod == null ? "" : " -> " + pod) + " -> " + dropZone;
+    }
+}
@@ -0,0 +1,276 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A space-time reservation table for Kivas sharing a solver.Maze(), used by CooperativePlanner.
+ * <p>
+ * Each reserved path claims its cells timestep by timestep, and the Kiva then stays (is parked)
+ * at the last cell of its path until it is given a new path or released.
+ * Timesteps are kept in a ring of slices, one primitive hash from cell to Kiva per timestep,
+ * so a lookup is one hash probe and no objects are created per reservation.
+ * advance() moves the start of the ring forward and clears the slices that have expired;
+ * the ring grows when a path reaches past its end.
+ * <p>
+ * Kivas are numbered from 0. constraintsFor() gives the SpaceTimeConstraints a Kiva plans with:
+ * every reservation but its own.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.2000
+ * @see CooperativePlanner
+ * @see SpaceTimeConstraints
+ */
+public class ReservationTable {
+
+    /**
+     * The owner of a cell that is not reserved.
+     */
+    public static final int FREE = -1;
+
+    private final int width;
+    private LongIntMap[] slices;    // slices[time & (slices.length - 1)] maps cell to Kiva for times base ..
+    private int base = 0;           // the earliest timestep still kept
+    private int latest = -1;        // the last timestep anything is reserved or parked from
+
+    private final LongIntMap parkedBy = new LongIntMap();    // cell to the Kiva parked there
+    private final LongIntMap parkedSince = new LongIntMap(); // cell to the timestep the Kiva parked
+    private final LongIntMap lastReserved = new LongIntMap(); // cell to the last timestep it was ever reserved
+    private int[][] robotCells = new int[0][];               // the cells each Kiva reserved
+    private int[] robotStart = new int[0];                   // the timestep each Kiva's reservation starts
+
+    /**
+     * Creates a ReservationTable for a maze with a ring of 256 timesteps, which grows as needed.
+     *
+     * @param maze - the floor map the Kivas share.
+     */
+    public ReservationTable(Maze maze) {
+        this(maze, 256);
+    }
+
+    /**
+     * Creates a ReservationTable for a maze.
+     *
+     * @param maze   - the floor map the Kivas share.
+     * @param window - the number of timesteps the ring holds at first, rounded up to a power of two.
+     */
+    public ReservationTable(Maze maze, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1 (was " + window + ")");
+        }
+        this.width = maze.getWidth();
+        this.slices = newSlices(Integer.highestOneBit(Math.max(window, 2) * 2 - 1));
+    }
+
+    /**
+     * Reserves a path for a Kiva, replacing its previous reservations.
+     * The Kiva is at {@code path.get(i)} at timestep {@code startTime + i} and parked at the last location after that.
+     *
+     * @param robot     - the Kiva's number, from 0.
+     * @param path      - the time indexed Points in (row, col) format.
+     * @param startTime - the timestep of the first Point, not before getCurrentTime().
+     */
+    public void reserve(int robot, List<Point> path, int startTime) {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("can not reserve an empty path");
+        }
+        if (startTime < base) {
+            throw new IllegalArgumentException("timestep " + startTime + " has already expired (now " + base + ")");
+        }
+        release(robot);
+        int end = startTime + path.size() - 1;
+        ensureWindow(end);
+        int[] cells = new int[path.size()];
+        for (int i = 0; i < cells.length; i++) {
+            Point location = path.get(i);
+            cells[i] = location.getX() * width + location.getY();
+            slice(startTime + i).put(cells[i], robot);
+            if (lastReserved.get(cells[i], -1) < startTime + i) {
+                lastReserved.put(cells[i], startTime + i);
+            }
+        }
+        robotCells[robot] = cells;
+        robotStart[robot] = startTime;
+        parkedBy.put(cells[cells.length - 1], robot);
+        parkedSince.put(cells[cells.length - 1], end);
+        latest = Math.max(latest, end);
+    }
+
+    /**
+     * Removes every reservation of a Kiva, including where it is parked.
+     *
+     * @param robot - the Kiva's number, from 0.
+     */
+    public void release(int robot) {
+        if (robot < 0) {
+            throw new IllegalArgumentException("Kiva numbers start at 0 (was " + robot + ")");
+        }
+        if (robot >= robotCells.length) {
+            int size = Math.max(robot + 1, robotCells.length * 2);
+            robotCells = Arrays.copyOf(robotCells, size);
+            robotStart = Arrays.copyOf(robotStart, size);
+            return;
+        }
+        int[] cells = robotCells[robot];
+        if (cells == null) {
+            return;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            int time = robotStart[robot] + i;
+            if (time >= base && slice(time).get(cells[i], FREE) == robot) {
+                slice(time).put(cells[i], FREE);
+            }
+        }
+        int parked = cells[cells.length - 1];
+        if (parkedBy.get(parked, FREE) == robot) {
+            parkedBy.put(parked, FREE);
+        }
+        robotCells[robot] = null;
+    }
+
+    /**
+     * Moves time forward, expiring every reservation before the given timestep.
+     *
+     * @param now - the current timestep.
+     */
+    public void advance(int now) {
+        if (now <= base) {
+            return;
+        }
+        int expired = Math.min(now - base, slices.length);
+        for (int i = 0; i < expired; i++) {
+            slice(base + i).clear();
+        }
+        base = now;
+    }
+
+    /**
+     * Returns the earliest timestep the table still holds.
+     *
+     * @return the current timestep.
+     */
+    public int getCurrentTime() {
+        return base;
+    }
+
+    /**
+     * Returns the Kiva in a cell at a timestep.
+     *
+     * @param row  - the row of the cell.
+     * @param col  - the column of the cell.
+     * @param time - the timestep.
+     * @return the Kiva's number, or FREE.
+     */
+    public int getOwner(int row, int col, int time) {
+        return owner(row * width + col, time, FREE);
+    }
+
+    /**
+     * Returns the constraints a Kiva plans with: every reservation except its own.
+     *
+     * @param robot - the Kiva's number, from 0.
+     * @return the SpaceTimeConstraints for the Kiva.
+     */
+    public SpaceTimeConstraints constraintsFor(final int robot) {
+        return new SpaceTimeConstraints() {
+            @Override
+            public boolean isCellBlocked(int cell, int time) {
+                return owner(cell, time, robot) != FREE;
+            }
+
+            @Override
+            public boolean isMoveBlocked(int fromCell, int toCell, int time) {
+                // another Kiva moving the other way through the same pair of cells
+                int other = movingOwner(toCell, time - 1, robot);
+                return other != FREE && movingOwner(fromCell, time, robot) == other;
+            }
+
+            @Override
+            public int getLastBlockedTime(int cell) {
+                int parked = parkedBy.get(cell, FREE);
+                if (parked != FREE && parked != robot) {
+                    return Integer.MAX_VALUE;
+                }
+                for (int time = Math.min(latest, base + slices.length - 1); time >= base; time--) {
+                    int owner = slice(time).get(cell, FREE);
+                    if (owner != FREE && owner != robot) {
+                        return time;
+                    }
+                }
+                return -1;
+            }
+
+            @Override
+            public int getLastConstrainedTime(int cell) {
+                int parked = parkedBy.get(cell, FREE);
+                if (parked != FREE && parked != robot) {
+                    return Integer.MAX_VALUE;
+                }
+                return lastReserved.get(cell, -1);
+            }
+
+            @Override
+            public int getHorizon() {
+                return latest;
+            }
+        };
+    }
+
+    /**
+     * Returns the Kiva in a cell at a timestep, whether it is following its path or parked, ignoring one Kiva.
+     */
+    private int owner(int cell, int time, int ignored) {
+        int owner = movingOwner(cell, time, ignored);
+        if (owner != FREE) {
+            return owner;
+        }
+        int parked = parkedBy.get(cell, FREE);
+        if (parked != FREE && parked != ignored && time >= parkedSince.get(cell, 0)) {
+            return parked;
+        }
+        return FREE;
+    }
+
+    private int movingOwner(int cell, int time, int ignored) {
+        if (time < base || time >= base + slices.length) {
+            return FREE;
+        }
+        int owner = slice(time).get(cell, FREE);
+        return owner == ignored ? FREE : owner;
+    }
+
+    private LongIntMap slice(int time) {
+        return slices[time & (slices.length - 1)];
+    }
+
+    /**
+     * Grows the ring so it holds every timestep up to end, keeping each slice at its timestep.
+     */
+    private void ensureWindow(int end) {
+        if (end < base + slices.length) {
+            return;
+        }
+        int size = slices.length;
+        while (end >= base + size) {
+            size *= 2;
+        }
+        LongIntMap[] grown = new LongIntMap[size];
+        for (int time = base; time < base + slices.length; time++) {
+            grown[time & (size - 1)] = slice(time);
+        }
+        for (int i = 0; i < size; i++) {
+            if (grown[i] == null) {
+                grown[i] = new LongIntMap(8);
+            }
+        }
+        slices = grown;
+    }
+
+    private static LongIntMap[] newSlices(int size) {
+        LongIntMap[] created = new LongIntMap[size];
+        for (int i = 0; i < size; i++) {
+            created[i] = new LongIntMap(8);
+        }
+        return created;
+    }
+}
@@ -0,0 +1,304 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of solved missions, so a mission that repeats exactly is not searched again.
+ * <p>
+ * A route is keyed by the maze version (see Maze.getVersion()), the Kiva, pod and drop zone locations,
+ * and the kind of search that found it. Versions are unique across all Mazes and change whenever an obstacle
+ * is added or removed, so a route is never returned for a maze that has changed since it was found;
+ * routes for old versions are simply never used again and are evicted as the least recently used.
+ * <p>
+ * Paths are stored compactly: the first cell, then two bits per step for the direction moved,
+ * and a short list of the steps that are not a move to a neighbor, such as picking up the pod.
+ * The Kiva commands for the path are stored with it. The cache is bounded by the memory the routes take;
+ * when it is full the least recently used routes are evicted, the newest route is always kept.
+ * All methods are synchronized and lookups take constant time, so one cache can be shared by many Solvers
+ * and threads; routes are immutable and are decoded outside the lock.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.0300
+ * @see Solver#setRouteCache(RouteCache)
+ * @see Solver#solveCommands(Maze)
+ */
+public class RouteCache {
+
+    private static final int NONE = -1;
+    private static final int ROUTE_OVERHEAD = 64;  // object headers, fields and array headers, roughly
+
+    private final long maxBytes;
+    private final Map<Key, Route> routes = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Identifies a mission: the maze version, the Kiva, pod and drop zone cells, and the kind of search.
+     */
+    static final class Key {
+        private final long version;
+        private final int kiva;
+        private final int pod;
+        private final int dropZone;
+        private final Class<?> source;
+
+        Key(Maze maze, Class<?> source) {
+            this.version = maze.getVersion();
+            this.kiva = cellOf(maze.getInitialKivaLocation(), maze.getWidth());
+            this.pod = cellOf(maze.getPodLocation(), maze.getWidth());
+            this.dropZone = cellOf(maze.getDropZoneLocation(), maze.getWidth());
+            this.source = source;
+        }
+
+        private static int cellOf(Point location, int width) {
+            return location == null ? NONE : location.getX() * width + location.getY();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return version == key.version && kiva == key.kiva && pod == key.pod && dropZone == key.dropZone
+                    && source == key.source;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(version);
+            hash = 31 * hash + kiva;
+            hash = 31 * hash + pod;
+            hash = 31 * hash + dropZone;
+            return 31 * hash + source.hashCode();
+        }
+    }
+
+    /**
+     * A solved mission: the encoded path, its Kiva commands, and whether the mission failed.
+     */
+    static final class Route {
+        private final int width;
+        private final int length;         // the number of Points in the path
+        private final int first;          // the cell of the first Point, or NONE
+        private final long[] moves;       // two bits per step, the direction index in FlatBreadthFirstSearch order
+        private final int[] otherSteps;   // the steps that are not a move to a neighbor, in order
+        private final int[] otherCells;   // the cell each of those steps ends on
+        private final String commands;
+        private final boolean unsolvable;
+
+        Route(List<Point> path, int width, String commands, boolean unsolvable) {
+            this.width = width;
+            this.length = path.size();
+            this.commands = commands;
+            this.unsolvable = unsolvable;
+            this.moves = new long[(Math.max(length - 1, 0) + 31) >>> 5];
+            IntList steps = new IntList(4);
+            IntList cells = new IntList(4);
+            int previous = NONE;
+            for (int i = 0; i < length; i++) {
+                Point point = path.get(i);
+                int cell = point.getX() * width + point.getY();
+                if (i > 0) {
+                    int direction = direction(previous, cell);
+                    if (direction == NONE) {
+                        steps.add(i - 1);
+                        cells.add(cell);
+                    } else {
+                        moves[(i - 1) >>> 5] |= (long) direction << (((i - 1) & 31) << 1);
+                    }
+                }
+                previous = cell;
+            }
+            this.first = length > 0 ? cellOf(path.get(0)) : NONE;
+            this.otherSteps = steps.toArray();
+            this.otherCells = cells.toArray();
+        }
+
+        private int cellOf(Point point) {
+            return point.getX() * width + point.getY();
+        }
+
+        /**
+         * Returns the direction index that moves from one cell to its neighbor, or NONE if the cells are not neighbors.
+         */
+        private int direction(int from, int to) {
+            int rowDelta = to / width - from / width;
+            int colDelta = to % width - from % width;
+            for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                if (FlatBreadthFirstSearch.ROW_DELTAS[direction] == rowDelta
+                        && FlatBreadthFirstSearch.COL_DELTAS[direction] == colDelta) {
+                    return direction;
+                }
+            }
+            return NONE;
+        }
+
+        /**
+         * Decodes the path into a new List the caller may change.
+         *
+         * @return the solution path.
+         */
+        List<Point> getPath() {
+            List<Point> path = new ArrayList<>(length);
+            if (length == 0) {
+                return path;
+            }
+            int row = first / width;
+            int col = first % width;
+            path.add(new Point(row, col));
+            int other = 0;
+            for (int step = 0; step < length - 1; step++) {
+                if (other < otherSteps.length && otherSteps[other] == step) {
+                    row = otherCells[other] / width;
+                    col = otherCells[other] % width;
+                    other++;
+                } else {
+                    int direction = (int) (moves[step >>> 5] >>> ((step & 31) << 1)) & 3;
+                    row += FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                    col += FlatBreadthFirstSearch.COL_DELTAS[direction];
+                }
+                path.add(new Point(row, col));
+            }
+            return path;
+        }
+
+        String getCommands() {
+            return commands;
+        }
+
+        boolean isUnsolvable() {
+            return unsolvable;
+        }
+
+        long getBytes() {
+            return ROUTE_OVERHEAD + moves.length * (long) Long.BYTES
+                    + (otherSteps.length + otherCells.length) * (long) Integer.BYTES + commands.length() * 2L;
+        }
+    }
+
+    /**
+     * Creates a cache that holds up to maxBytes of routes.
+     *
+     * @param maxBytes - the most memory the cached routes may take, in bytes.
+     * @throws IllegalArgumentException if maxBytes is less than 1.
+     */
+    public RouteCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maximum size must be at least 1 byte (was " + maxBytes + ")");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached route for a mission, or null, and counts the hit or miss.
+     */
+    synchronized Route get(Key key) {
+        Route route = routes.get(key);
+        if (route != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return route;
+    }
+
+    /**
+     * Stores the route found for a mission and evicts the least recently used routes if the cache is full.
+     *
+     * @return the stored route.
+     */
+    Route put(Key key, List<Point> path, int width, String commands, boolean unsolvable) {
+        Route route = new Route(path, width, commands, unsolvable);
+        synchronized (this) {
+            Route replaced = routes.put(key, route);
+            if (replaced != null) {
+                bytes -= replaced.getBytes();
+            }
+            bytes += route.getBytes();
+            Iterator<Route> eldest = routes.values().iterator();
+            while (bytes > maxBytes && routes.size() > 1) {
+                bytes -= eldest.next().getBytes();
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Removes every route from the cache. The counters are kept.
+     */
+    public synchronized void clear() {
+        routes.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the number of routes in the cache.
+     *
+     * @return the number of cached routes.
+     */
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * Returns the memory taken by the cached routes, estimated.
+     *
+     * @return the size of the cached routes, in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of missions answered with a cached route.
+     *
+     * @return the number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of missions that had to be searched.
+     *
+     * @return the number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of missions answered with a cached route.
+     *
+     * @return hits / (hits + misses), or 0 if there have been no lookups.
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns the number of routes removed to keep the cache within its size.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RouteCache: " + routes.size() + " routes, " + bytes / 1024 + " KiB, " + hits + " hits, " + misses
+                + " misses (" + Math.round(getHitRatio() * 100) + "% hits), "
+                + evictions + " evictions";
+    }
+}
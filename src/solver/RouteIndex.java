@@ -0,0 +1,987 @@
+package solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A preprocessed route index (a contraction hierarchy) for a solver.Maze() whose layout does not change,
+ * answering shortest path queries without searching the grid.
+ * <p>
+ * Every open cell becomes a node of a graph, with an edge of length 1 to each open neighbor.
+ * Nodes are then contracted one at a time, least important first. Contracting a node removes it from the graph,
+ * adding a shortcut between two of its neighbors whenever the path through the node is the only shortest path
+ * between them. Each shortcut remembers the node it skips, so it can be unpacked back into cells.
+ * Whether another path is as short is found by a witness search bounded by the length of the path through the node,
+ * and a path of the same length counts, so the many equal paths of an open floor do not add shortcuts.
+ * <p>
+ * On a floor cut up by walls and racks, the importance of a node is the number of shortcuts its contraction adds
+ * minus the edges it removes, plus the number of neighbors already contracted and its level in the hierarchy,
+ * which spreads contraction evenly over the map. On an open floor, where at least 85% of the open cells have four
+ * open neighbors, that order builds slowly and answers slowly, so nodes are contracted in nested dissection order
+ * instead: each half of the floor before the line of cells that separates them, recursively.
+ * <p>
+ * A query runs a small Dijkstra search upward (toward more important nodes) from both the start and the goal,
+ * skipping nodes it reached more cheaply through a more important node (stall-on-demand).
+ * The shortest path meets at its most important node, so both searches only settle a few hundred nodes
+ * even on very large maps. The path is unpacked into one Point per cell, in the same (row, col) format as Solver.
+ * Unpacking takes time in proportion to the length of the path, and on large floors it takes most of the query.
+ * On floors with walls and racks a query takes tens to a few hundred microseconds, a small fraction of
+ * a FlatBreadthFirstSearch or an AStarSearch. On an open floor AStarSearch walks almost straight to the goal
+ * and is about as fast, and on a floor with many scattered single-cell obstacles the index is slow to build and
+ * saves little over AStarSearch, so the index does not pay off on either.
+ * <p>
+ * The index can be saved to and loaded from a file. A loaded index checks that a maze has the same layout
+ * before answering queries for it. The file ends with a CRC32 of everything before it, as a BinaryMap file does,
+ * and a file that is truncated or fails its checksum is rejected when it is loaded, as is one with an edge that
+ * does not lead to a more important node or a shortcut whose skipped node does not join its two ends,
+ * so a loaded index can always unpack its paths.
+ * An index is never changed by a query, and each query borrows its own scratch from a pool of idle scratch, so one
+ * index can be shared by any number of threads querying at the same time.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261018.1300
+ * @see SearchStrategy
+ * @see Solver
+ */
+public class RouteIndex implements SearchStrategy {
+
+    private static final int FILE_MAGIC = 0x4B524958; // "KRIX"
+    private static final int FILE_VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int CHECKSUM_BYTES = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+    // the share of open cells with four open neighbors above which a floor is ordered by nested dissection
+    private static final double OPEN_FLOOR_INTERIOR = 0.85;
+
+    private final int width;
+    private final int height;
+    private final long layoutHash;
+    private final int[] nodeOfCell; // NONE for obstacles
+    private final int[] cellOfNode;
+    private final int[] rank;       // contraction order, higher is more important
+    private final int[] upFirst;    // upward edges of node n are upFirst[n] .. upFirst[n + 1] - 1
+    private final int[] upTarget;
+    private final int[] upWeight;
+    private final int[] upMiddle;   // the node a shortcut skips, NONE for an edge between neighboring cells
+    private final long buildMillis;
+
+    // idle query scratch, borrowed by one query at a time so queries on a shared index run at the same time
+    private final ConcurrentLinkedQueue<Query> idleQueries = new ConcurrentLinkedQueue<>();
+
+    // the number of nodes the last query expanded
+    private volatile int lastExpanded = 0;
+
+    // the last maze confirmed to have this index's layout
+    private volatile CheckedMaze checked = null;
+
+    private RouteIndex(int width, int height, long layoutHash, int[] nodeOfCell, int[] cellOfNode, int[] rank,
+                       int[] upFirst, int[] upTarget, int[] upWeight, int[] upMiddle, long buildMillis) {
+        this.width = width;
+        this.height = height;
+        this.layoutHash = layoutHash;
+        this.nodeOfCell = nodeOfCell;
+        this.cellOfNode = cellOfNode;
+        this.rank = rank;
+        this.upFirst = upFirst;
+        this.upTarget = upTarget;
+        this.upWeight = upWeight;
+        this.upMiddle = upMiddle;
+        this.buildMillis = buildMillis;
+    }
+
+    /**
+     * A maze confirmed to have this index's layout, at the version it was checked.
+     */
+    private static final class CheckedMaze {
+        final Maze maze;
+        final long version;
+
+        CheckedMaze(Maze maze, long version) {
+            this.maze = maze;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Builds the route index for a maze.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @return the RouteIndex for the maze's current layout.
+     */
+    public static RouteIndex build(Maze maze) {
+        long started = System.currentTimeMillis();
+        final int width = maze.getWidth();
+        final int height = maze.getHeight();
+        int[] nodeOfCell = new int[maze.getCellCount()];
+        int nodes = 0;
+        for (int cell = 0; cell < nodeOfCell.length; cell++) {
+            nodeOfCell[cell] = maze.isObstacle(cell / width, cell % width) ? NONE : nodes++;
+        }
+        int[] cellOfNode = new int[nodes];
+        for (int cell = 0; cell < nodeOfCell.length; cell++) {
+            if (nodeOfCell[cell] != NONE) {
+                cellOfNode[nodeOfCell[cell]] = cell;
+            }
+        }
+
+        Contraction contraction = new Contraction(nodes);
+        for (int node = 0; node < nodes; node++) {
+            int cell = cellOfNode[node];
+            int row = cell / width;
+            int col = cell % width;
+            // RIGHT and DOWN only, each edge is added to both of its ends
+            if (col + 1 < width && nodeOfCell[cell + 1] != NONE) {
+                contraction.addEdge(node, nodeOfCell[cell + 1], 1, NONE);
+            }
+            if (row + 1 < height && nodeOfCell[cell + width] != NONE) {
+                contraction.addEdge(node, nodeOfCell[cell + width], 1, NONE);
+            }
+        }
+        int interior = 0;
+        for (int node = 0; node < nodes; node++) {
+            if (contraction.degree[node] == 4) {
+                interior++;
+            }
+        }
+        if (interior >= OPEN_FLOOR_INTERIOR * nodes) {
+            IntList order = new IntList(nodes);
+            dissect(nodeOfCell, width, 0, height, 0, width, order);
+            contraction.contractInOrder(order);
+        } else {
+            contraction.contractAll();
+        }
+
+        // keep the edges that lead to a more important node
+        int[] rank = contraction.rank;
+        int[] upFirst = new int[nodes + 1];
+        for (int node = 0; node < nodes; node++) {
+            for (int i = 0; i < contraction.degree[node]; i++) {
+                if (rank[contraction.neighbor[node][i]] > rank[node]) {
+                    upFirst[node + 1]++;
+                }
+            }
+        }
+        for (int node = 0; node < nodes; node++) {
+            upFirst[node + 1] += upFirst[node];
+        }
+        int edges = upFirst[nodes];
+        int[] upTarget = new int[edges];
+        int[] upWeight = new int[edges];
+        int[] upMiddle = new int[edges];
+        for (int node = 0; node < nodes; node++) {
+            int next = upFirst[node];
+            for (int i = 0; i < contraction.degree[node]; i++) {
+                int neighbor = contraction.neighbor[node][i];
+                if (rank[neighbor] > rank[node]) {
+                    upTarget[next] = neighbor;
+                    upWeight[next] = contraction.weight[node][i];
+                    upMiddle[next] = contraction.middle[node][i];
+                    next++;
+                }
+            }
+        }
+        return new RouteIndex(width, height, layoutHash(maze), nodeOfCell, cellOfNode, rank,
+                upFirst, upTarget, upWeight, upMiddle, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Orders the open cells of a region for contraction by nested dissection: the cells on either side of a
+     * separator line first, each side ordered the same way, then the separator line itself.
+     * The separator is the line across the middle third of the region with the fewest open cells.
+     */
+    private static void dissect(int[] nodeOfCell, int width, int top, int bottom, int left, int right, IntList order) {
+        if (top >= bottom || left >= right) {
+            return;
+        }
+        if ((bottom - top) * (right - left) <= 4) {
+            for (int row = top; row < bottom; row++) {
+                for (int col = left; col < right; col++) {
+                    if (nodeOfCell[row * width + col] != NONE) {
+                        order.add(nodeOfCell[row * width + col]);
+                    }
+                }
+            }
+            return;
+        }
+        if (bottom - top >= right - left) {
+            int separator = separator(nodeOfCell, width, top, bottom, left, right, true);
+            dissect(nodeOfCell, width, top, separator, left, right, order);
+            dissect(nodeOfCell, width, separator + 1, bottom, left, right, order);
+            dissect(nodeOfCell, width, separator, separator + 1, left, right, order);
+        } else {
+            int separator = separator(nodeOfCell, width, top, bottom, left, right, false);
+            dissect(nodeOfCell, width, top, bottom, left, separator, order);
+            dissect(nodeOfCell, width, top, bottom, separator + 1, right, order);
+            dissect(nodeOfCell, width, top, bottom, separator, separator + 1, order);
+        }
+    }
+
+    /**
+     * Returns the row (or column) across the middle third of a region with the fewest open cells,
+     * the one nearest the middle if several tie.
+     */
+    private static int separator(int[] nodeOfCell, int width, int top, int bottom, int left, int right, boolean row) {
+        int first = row ? top : left;
+        int end = row ? bottom : right;
+        int middle = (first + end) >>> 1;
+        int slack = (end - first) / 6;
+        int best = middle;
+        int fewest = Integer.MAX_VALUE;
+        for (int offset = 0; offset <= slack; offset++) {
+            for (int line = middle - offset; line <= middle + offset; line += Math.max(1, 2 * offset)) {
+                if (line < first || line >= end) {
+                    continue;
+                }
+                int open = 0;
+                for (int i = row ? left : top; i < (row ? right : bottom); i++) {
+                    if (nodeOfCell[row ? line * width + i : i * width + line] != NONE) {
+                        open++;
+                    }
+                }
+                if (open < fewest) {
+                    fewest = open;
+                    best = line;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds a shortest path using the index.
+     *
+     * @param maze  - a floor map in solver.Maze format with the same layout the index was built from.
+     * @param start - the starting location point (row, col).
+     * @param goal  - the goal location point (row, col).
+     * @return a List of Points from start to goal, inclusive, or an empty List if the goal can not be reached.
+     * @throws IllegalArgumentException if the maze layout is not the one the index was built from.
+     */
+    @Override
+    public List<Point> search(Maze maze, Point start, Point goal) {
+        if (!matches(maze)) {
+            throw new IllegalArgumentException("the maze layout does not match this route index");
+        }
+        return findPath(start, goal);
+    }
+
+    /**
+     * Returns true if a maze has the layout this index was built from.
+     * The check reads the whole maze once, then again only after the maze changes.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @return true if the index can answer queries for the maze.
+     */
+    public boolean matches(Maze maze) {
+        CheckedMaze last = checked;
+        if (last != null && maze == last.maze && maze.getVersion() == last.version) {
+            return true;
+        }
+        long version = maze.getVersion();
+        if (maze.getWidth() != width || maze.getHeight() != height || layoutHash(maze) != layoutHash) {
+            return false;
+        }
+        checked = new CheckedMaze(maze, version);
+        return true;
+    }
+
+    /**
+     * Finds a shortest path between two locations of the indexed layout.
+     *
+     * @param start - the starting location point (row, col).
+     * @param goal  - the goal location point (row, col).
+     * @return a List of Points from start to goal, inclusive, or an empty List if the goal can not be reached.
+     */
+    public List<Point> findPath(Point start, Point goal) {
+        Query query = idleQueries.poll();
+        if (query == null) {
+            query = new Query(cellOfNode.length);
+        }
+        try {
+            List<Point> path = query.findPath(this, start, goal);
+            lastExpanded = query.expanded;
+            return path;
+        } finally {
+            idleQueries.offer(query);
+        }
+    }
+
+    /**
+     * The scratch for one query at a time, reset through the touched list so a query does not clear
+     * whole arrays. It holds no reference to an index, so idle scratch does not keep one reachable.
+     */
+    private static final class Query {
+        final int[] forwardDistance;
+        final int[] backwardDistance;
+        final int[] forwardParent;
+        final int[] backwardParent;
+        final IntList touched = new IntList();
+        final IntHeap forwardQueue = new IntHeap();
+        final IntHeap backwardQueue = new IntHeap();
+        int expanded = 0;
+
+        Query(int nodes) {
+            forwardDistance = new int[nodes];
+            backwardDistance = new int[nodes];
+            forwardParent = new int[nodes];
+            backwardParent = new int[nodes];
+            Arrays.fill(forwardDistance, INFINITY);
+            Arrays.fill(backwardDistance, INFINITY);
+        }
+
+        List<Point> findPath(RouteIndex index, Point start, Point goal) {
+            expanded = 0;
+            int source = index.node(start);
+            int target = index.node(goal);
+            if (source == NONE || target == NONE) {
+                return Collections.emptyList();
+            }
+            if (source == target) {
+                return new ArrayList<>(Collections.singletonList(new Point(start.getX(), start.getY())));
+            }
+
+            forwardQueue.clear();
+            backwardQueue.clear();
+            visit(forwardDistance, forwardParent, forwardQueue, source, 0, NONE);
+            visit(backwardDistance, backwardParent, backwardQueue, target, 0, NONE);
+            int best = INFINITY;
+            int meeting = NONE;
+            while (!forwardQueue.isEmpty() || !backwardQueue.isEmpty()) {
+                long forwardMin = forwardQueue.isEmpty() ? Long.MAX_VALUE : forwardQueue.peekKey();
+                long backwardMin = backwardQueue.isEmpty() ? Long.MAX_VALUE : backwardQueue.peekKey();
+                if (Math.min(forwardMin, backwardMin) >= best) {
+                    break;
+                }
+                boolean forward = forwardMin <= backwardMin;
+                int[] distance = forward ? forwardDistance : backwardDistance;
+                int[] otherDistance = forward ? backwardDistance : forwardDistance;
+                IntHeap queue = forward ? forwardQueue : backwardQueue;
+                long key = queue.peekKey();
+                int node = queue.poll();
+                if (key != distance[node]) {
+                    continue; // stale entry
+                }
+                if (stalled(index, distance, node)) {
+                    continue;
+                }
+                expanded++;
+                if (otherDistance[node] != INFINITY && distance[node] + otherDistance[node] < best) {
+                    best = distance[node] + otherDistance[node];
+                    meeting = node;
+                }
+                for (int edge = index.upFirst[node]; edge < index.upFirst[node + 1]; edge++) {
+                    int next = index.upTarget[edge];
+                    int nextDistance = distance[node] + index.upWeight[edge];
+                    if (nextDistance < distance[next]) {
+                        visit(distance, forward ? forwardParent : backwardParent, queue, next, nextDistance, node);
+                    }
+                }
+            }
+
+            List<Point> path = Collections.emptyList();
+            if (meeting != NONE) {
+                path = unpackPath(index, source, target, meeting, best);
+            }
+            for (int i = 0; i < touched.size(); i++) {
+                forwardDistance[touched.get(i)] = INFINITY;
+                backwardDistance[touched.get(i)] = INFINITY;
+            }
+            touched.clear();
+            return path;
+        }
+
+        /**
+         * Stall-on-demand: a node this search reaches more cheaply through a more important node it already reached
+         * is not on a shortest upward path, so its edges are not relaxed.
+         */
+        private boolean stalled(RouteIndex index, int[] distance, int node) {
+            for (int edge = index.upFirst[node]; edge < index.upFirst[node + 1]; edge++) {
+                int higher = distance[index.upTarget[edge]];
+                if (higher != INFINITY && higher + index.upWeight[edge] < distance[node]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void visit(int[] distance, int[] parent, IntHeap queue, int node, int nodeDistance, int from) {
+            if (forwardDistance[node] == INFINITY && backwardDistance[node] == INFINITY) {
+                touched.add(node);
+            }
+            distance[node] = nodeDistance;
+            parent[node] = from;
+            queue.push(nodeDistance, node);
+        }
+
+        /**
+         * Joins the upward chains from the start and the goal at the meeting node and unpacks every shortcut.
+         */
+        private List<Point> unpackPath(RouteIndex index, int source, int target, int meeting, int length) {
+            IntList nodes = new IntList();
+            for (int node = meeting; node != NONE; node = forwardParent[node]) {
+                nodes.add(node);
+            }
+            nodes.reverse();
+            for (int node = backwardParent[meeting]; node != NONE; node = backwardParent[node]) {
+                nodes.add(node);
+            }
+
+            List<Point> path = new ArrayList<>(length + 1);
+            index.addPoint(path, source);
+            IntList pending = new IntList(); // pairs of nodes still to unpack, used as a stack
+            for (int i = 0; i + 1 < nodes.size(); i++) {
+                pending.add(nodes.get(i + 1));
+                pending.add(nodes.get(i));
+                while (pending.size() > 0) {
+                    int from = pending.pop();
+                    int to = pending.pop();
+                    int edge = index.findEdge(from, to);
+                    if (index.upMiddle[edge] == NONE) {
+                        index.addPoint(path, to);
+                    } else {
+                        pending.add(to);
+                        pending.add(index.upMiddle[edge]);
+                        pending.add(index.upMiddle[edge]);
+                        pending.add(from);
+                    }
+                }
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Finds the edge between two nodes, stored with the less important of the two.
+     */
+    private int findEdge(int a, int b) {
+        int edge = edgeBetween(rank, upFirst, upTarget, a, b);
+        if (edge == NONE) {
+            throw new IllegalStateException("route index is missing the edge between nodes " + a + " and " + b);
+        }
+        return edge;
+    }
+
+    /**
+     * Returns the edge between two nodes, stored with the less important of the two, or NONE if there is none.
+     */
+    private static int edgeBetween(int[] rank, int[] upFirst, int[] upTarget, int a, int b) {
+        int lower = rank[a] < rank[b] ? a : b;
+        int upper = lower == a ? b : a;
+        for (int edge = upFirst[lower]; edge < upFirst[lower + 1]; edge++) {
+            if (upTarget[edge] == upper) {
+                return edge;
+            }
+        }
+        return NONE;
+    }
+
+    private void addPoint(List<Point> path, int node) {
+        int cell = cellOfNode[node];
+        path.add(new Point(cell / width, cell % width));
+    }
+
+    private int node(Point location) {
+        int row = location.getX();
+        int col = location.getY();
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return NONE;
+        }
+        return nodeOfCell[row * width + col];
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return lastExpanded;
+    }
+
+    /**
+     * Returns the time taken to build the index, 0 for an index loaded from a file.
+     *
+     * @return the build time in milliseconds.
+     */
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Returns the number of nodes (open cells) in the index.
+     *
+     * @return the number of nodes.
+     */
+    public int getNodeCount() {
+        return cellOfNode.length;
+    }
+
+    /**
+     * Returns the number of upward edges in the index, including shortcuts.
+     *
+     * @return the number of upward edges.
+     */
+    public int getEdgeCount() {
+        return upTarget.length;
+    }
+
+    /**
+     * Returns the number of shortcuts added by contraction.
+     *
+     * @return the number of shortcuts.
+     */
+    public int getShortcutCount() {
+        int shortcuts = 0;
+        for (int middle : upMiddle) {
+            if (middle != NONE) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Returns the size of the index arrays, which is also about the size of the saved file.
+     *
+     * @return the size of the index in bytes.
+     */
+    public long getIndexBytes() {
+        return Integer.BYTES * ((long) nodeOfCell.length + cellOfNode.length + rank.length + upFirst.length
+                + 3L * upTarget.length);
+    }
+
+    /**
+     * Returns a one line summary of the index size and build time.
+     *
+     * @return String with the index statistics.
+     */
+    @Override
+    public String toString() {
+        return "RouteIndex " + width + "x" + height + ": " + getNodeCount() + " nodes, " + getEdgeCount() + " edges ("
+                + getShortcutCount() + " shortcuts), " + getIndexBytes() / 1024 + " KiB, built in " + buildMillis + " ms";
+    }
+
+    /**
+     * Saves the index to a file.
+     *
+     * @param file - the file to write.
+     * @throws IOException if the file can not be written.
+     */
+    public void save(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), crc))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeLong(layoutHash);
+            out.writeInt(cellOfNode.length);
+            out.writeInt(upTarget.length);
+            writeInts(out, cellOfNode);
+            writeInts(out, rank);
+            writeInts(out, upFirst);
+            writeInts(out, upTarget);
+            writeInts(out, upWeight);
+            writeInts(out, upMiddle);
+            out.writeInt((int) crc.getValue());
+        }
+    }
+
+    /**
+     * Loads an index saved by save(File).
+     *
+     * @param file - the file to read.
+     * @return the RouteIndex stored in the file.
+     * @throws IOException if the file can not be read, is not a route index, is truncated, fails its checksum,
+     *                     or holds edges that do not form a contraction hierarchy.
+     */
+    public static RouteIndex load(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), crc))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a route index");
+            }
+            int version = in.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException(file + " has route index version " + version + ", expected " + FILE_VERSION);
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            long layoutHash = in.readLong();
+            int nodes = in.readInt();
+            int edges = in.readInt();
+            long cells = (long) width * height;
+            if (width < 1 || height < 1 || cells > Integer.MAX_VALUE) {
+                throw new IOException(file + " has an invalid size of " + width + " x " + height);
+            }
+            if (nodes < 0 || nodes > cells || edges < 0) {
+                throw new IOException(file + " has an invalid count of " + nodes + " nodes and " + edges + " edges");
+            }
+            long expectedSize = HEADER_BYTES + Integer.BYTES * (3L * nodes + 1 + 3L * edges) + CHECKSUM_BYTES;
+            if (file.length() != expectedSize) {
+                throw new IOException(file + " is " + file.length() + " bytes, expected " + expectedSize);
+            }
+            int[] cellOfNode = readInts(in, nodes);
+            int[] rank = readInts(in, nodes);
+            int[] upFirst = readInts(in, nodes + 1);
+            int[] upTarget = readInts(in, edges);
+            int[] upWeight = readInts(in, edges);
+            int[] upMiddle = readInts(in, edges);
+            int checksum = (int) crc.getValue();
+            if (in.readInt() != checksum) {
+                throw new IOException(file + " failed its checksum");
+            }
+
+            int[] nodeOfCell = new int[(int) cells];
+            Arrays.fill(nodeOfCell, NONE);
+            for (int node = 0; node < nodes; node++) {
+                int cell = cellOfNode[node];
+                if (cell < 0 || cell >= cells || nodeOfCell[cell] != NONE) {
+                    throw new IOException(file + " has an invalid cell " + cell + " for node " + node);
+                }
+                nodeOfCell[cell] = node;
+                if (rank[node] < 0 || rank[node] >= nodes) {
+                    throw new IOException(file + " has an invalid rank " + rank[node] + " for node " + node);
+                }
+            }
+            if (upFirst[0] != 0 || upFirst[nodes] != edges) {
+                throw new IOException(file + " has edge offsets from " + upFirst[0] + " to " + upFirst[nodes]
+                        + ", expected 0 to " + edges);
+            }
+            for (int node = 0; node < nodes; node++) {
+                if (upFirst[node + 1] < upFirst[node]) {
+                    throw new IOException(file + " has decreasing edge offsets at node " + node);
+                }
+            }
+            for (int edge = 0; edge < edges; edge++) {
+                if (upTarget[edge] < 0 || upTarget[edge] >= nodes || upWeight[edge] < 1 || upWeight[edge] >= nodes
+                        || upMiddle[edge] < NONE || upMiddle[edge] >= nodes) {
+                    throw new IOException(file + " has an invalid edge " + edge);
+                }
+            }
+            checkEdges(file, width, cellOfNode, rank, upFirst, upTarget, upWeight, upMiddle);
+            return new RouteIndex(width, height, layoutHash, nodeOfCell, cellOfNode, rank,
+                    upFirst, upTarget, upWeight, upMiddle, 0);
+        }
+    }
+
+    /**
+     * Checks that every edge leads to a more important node, that every edge between neighboring cells has
+     * a length of 1, and that the node a shortcut skips is less important than both its ends and joins them
+     * with two edges as long as the shortcut. Each step of unpacking then replaces a shortcut with two edges
+     * between less important nodes, so unpacking always ends and never looks for an edge that is not there.
+     */
+    private static void checkEdges(File file, int width, int[] cellOfNode, int[] rank, int[] upFirst, int[] upTarget,
+                                   int[] upWeight, int[] upMiddle) throws IOException {
+        for (int node = 0; node < cellOfNode.length; node++) {
+            for (int edge = upFirst[node]; edge < upFirst[node + 1]; edge++) {
+                int target = upTarget[edge];
+                if (rank[target] <= rank[node]) {
+                    throw new IOException(file + " has edge " + edge + " from node " + node + " to node " + target
+                            + ", which is not more important");
+                }
+                int middle = upMiddle[edge];
+                if (middle == NONE) {
+                    int from = cellOfNode[node];
+                    int to = cellOfNode[target];
+                    int rows = Math.abs(from / width - to / width);
+                    int cols = Math.abs(from % width - to % width);
+                    if (upWeight[edge] != 1 || rows + cols != 1) {
+                        throw new IOException(file + " has edge " + edge + " between cells that are not neighbors");
+                    }
+                    continue;
+                }
+                if (rank[middle] >= rank[node]) {
+                    throw new IOException(file + " has shortcut " + edge + " skipping node " + middle
+                            + ", which is not less important than both its ends");
+                }
+                int first = edgeBetween(rank, upFirst, upTarget, middle, node);
+                int second = edgeBetween(rank, upFirst, upTarget, middle, target);
+                if (first == NONE || second == NONE || (long) upWeight[first] + upWeight[second] != upWeight[edge]) {
+                    throw new IOException(file + " has shortcut " + edge + " skipping node " + middle
+                            + ", which does not join its ends");
+                }
+            }
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = 0; i < values.length; i += BUFFER_SIZE / Integer.BYTES) {
+            int count = Math.min(values.length - i, BUFFER_SIZE / Integer.BYTES);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, i, count);
+            out.write(buffer.array(), 0, count * Integer.BYTES);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = 0; i < count; i += BUFFER_SIZE / Integer.BYTES) {
+            int chunk = Math.min(count - i, BUFFER_SIZE / Integer.BYTES);
+            in.readFully(buffer.array(), 0, chunk * Integer.BYTES);
+            buffer.clear();
+            buffer.asIntBuffer().get(values, i, chunk);
+        }
+        return values;
+    }
+
+    /**
+     * Returns a checksum of a maze's size and obstacle layout.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     * @return the layout checksum.
+     */
+    static long layoutHash(Maze maze) {
+        CRC32 crc = new CRC32();
+        crc.update(maze.getWidth());
+        crc.update(maze.getHeight());
+        byte[] row = new byte[(maze.getWidth() + 7) / 8];
+        for (int r = 0; r < maze.getHeight(); r++) {
+            Arrays.fill(row, (byte) 0);
+            for (int c = 0; c < maze.getWidth(); c++) {
+                if (maze.isObstacle(r, c)) {
+                    row[c >>> 3] |= (byte) (1 << (c & 7));
+                }
+            }
+            crc.update(row, 0, row.length);
+        }
+        return ((long) maze.getWidth() << 48) ^ ((long) maze.getHeight() << 32) ^ crc.getValue();
+    }
+
+    /**
+     * The graph while it is being contracted: an adjacency list per node, each edge stored at both ends.
+     * A contracted node is removed from the lists of its neighbors, so its own list is left holding
+     * exactly its edges to more important nodes.
+     */
+    private static final class Contraction {
+        final int nodes;
+        final int[][] neighbor;
+        final int[][] weight;
+        final int[][] middle;
+        final int[] degree;
+        final int[] rank;
+        final boolean[] contracted;
+        final int[] contractedNeighbors;
+        final int[] level;  // one more than the highest level of a contracted neighbor
+        int contractedCount = 0;
+
+        // witness search scratch
+        final int[] witnessDistance;
+        final IntList witnessTouched = new IntList();
+        final IntHeap witnessQueue = new IntHeap();
+        final VisitedMarks witnessTargets;
+
+        Contraction(int nodes) {
+            this.nodes = nodes;
+            neighbor = new int[nodes][];
+            weight = new int[nodes][];
+            middle = new int[nodes][];
+            degree = new int[nodes];
+            rank = new int[nodes];
+            contracted = new boolean[nodes];
+            contractedNeighbors = new int[nodes];
+            level = new int[nodes];
+            witnessDistance = new int[nodes];
+            Arrays.fill(witnessDistance, INFINITY);
+            witnessTargets = new VisitedMarks(nodes);
+            for (int node = 0; node < nodes; node++) {
+                neighbor[node] = new int[4];
+                weight[node] = new int[4];
+                middle[node] = new int[4];
+            }
+        }
+
+        /**
+         * Adds an edge to both of its ends, or shortens the edge already there.
+         */
+        void addEdge(int a, int b, int length, int via) {
+            if (!updateEdge(a, b, length, via)) {
+                append(a, b, length, via);
+                append(b, a, length, via);
+            } else {
+                updateEdge(b, a, length, via);
+            }
+        }
+
+        private boolean updateEdge(int from, int to, int length, int via) {
+            for (int i = 0; i < degree[from]; i++) {
+                if (neighbor[from][i] == to) {
+                    if (length < weight[from][i]) {
+                        weight[from][i] = length;
+                        middle[from][i] = via;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void append(int from, int to, int length, int via) {
+            int i = degree[from]++;
+            if (i == neighbor[from].length) {
+                neighbor[from] = Arrays.copyOf(neighbor[from], i * 2);
+                weight[from] = Arrays.copyOf(weight[from], i * 2);
+                middle[from] = Arrays.copyOf(middle[from], i * 2);
+            }
+            neighbor[from][i] = to;
+            weight[from][i] = length;
+            middle[from][i] = via;
+        }
+
+        private void removeEdge(int from, int to) {
+            for (int i = 0; i < degree[from]; i++) {
+                if (neighbor[from][i] == to) {
+                    int last = --degree[from];
+                    neighbor[from][i] = neighbor[from][last];
+                    weight[from][i] = weight[from][last];
+                    middle[from][i] = middle[from][last];
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Contracts every node, least important first, by the priority of each node.
+         */
+        void contractAll() {
+            IntHeap order = new IntHeap(nodes);
+            for (int node = 0; node < nodes; node++) {
+                order.push(priority(node), node);
+            }
+            while (!order.isEmpty()) {
+                int node = order.poll();
+                if (contracted[node]) {
+                    continue;
+                }
+                // lazy update: priorities change as neighbors are contracted, so check again before contracting
+                long current = priority(node);
+                if (!order.isEmpty() && current > order.peekKey()) {
+                    order.push(current, node);
+                    continue;
+                }
+                contract(node);
+            }
+        }
+
+        /**
+         * Contracts every node in the given order.
+         */
+        void contractInOrder(IntList order) {
+            for (int i = 0; i < order.size(); i++) {
+                contract(order.get(i));
+            }
+        }
+
+        /**
+         * The edge difference (shortcuts added minus edges removed), plus the number of neighbors already contracted
+         * and the level of the node, which spread contraction evenly over the map.
+         */
+        private long priority(int node) {
+            int shortcuts = addShortcuts(node, false);
+            return 2L * (shortcuts - degree[node]) + contractedNeighbors[node] + level[node];
+        }
+
+        private void contract(int node) {
+            addShortcuts(node, true);
+            contracted[node] = true;
+            rank[node] = contractedCount++;
+            for (int i = 0; i < degree[node]; i++) {
+                int next = neighbor[node][i];
+                contractedNeighbors[next]++;
+                level[next] = Math.max(level[next], level[node] + 1);
+                removeEdge(next, node);
+            }
+        }
+
+        /**
+         * Finds the shortcuts needed to contract a node, adding them if asked.
+         *
+         * @return the number of shortcuts needed.
+         */
+        private int addShortcuts(int node, boolean add) {
+            int shortcuts = 0;
+            int count = degree[node];
+            for (int i = 0; i + 1 < count; i++) {
+                int from = neighbor[node][i];
+                int longest = 0;
+                witnessTargets.clear();
+                for (int j = i + 1; j < count; j++) {
+                    longest = Math.max(longest, weight[node][i] + weight[node][j]);
+                    witnessTargets.mark(neighbor[node][j]);
+                }
+                witnessSearch(from, node, longest, count - i - 1);
+                for (int j = i + 1; j < count; j++) {
+                    int to = neighbor[node][j];
+                    int through = weight[node][i] + weight[node][j];
+                    if (witnessDistance[to] > through) {
+                        shortcuts++;
+                        if (add) {
+                            addEdge(from, to, through, node);
+                        }
+                    }
+                }
+                clearWitnesses();
+            }
+            return shortcuts;
+        }
+
+        /**
+         * A Dijkstra search from one neighbor that avoids the node being contracted. It only reaches nodes
+         * no farther than the longest path through the node, and stops once every other neighbor is settled.
+         * A path as long as the one through the node is a witness, so on open floors, where many paths tie,
+         * the tie does not add a shortcut.
+         */
+        private void witnessSearch(int source, int avoid, int limit, int targets) {
+            witnessQueue.clear();
+            witnessDistance[source] = 0;
+            witnessTouched.add(source);
+            witnessQueue.push(0, source);
+            int remaining = targets;
+            while (!witnessQueue.isEmpty()) {
+                long key = witnessQueue.peekKey();
+                int node = witnessQueue.poll();
+                if (key != witnessDistance[node]) {
+                    continue;
+                }
+                if (witnessTargets.isMarked(node) && --remaining == 0) {
+                    break;
+                }
+                for (int i = 0; i < degree[node]; i++) {
+                    int next = neighbor[node][i];
+                    int distance = witnessDistance[node] + weight[node][i];
+                    if (next == avoid || distance > limit || distance >= witnessDistance[next]) {
+                        continue;
+                    }
+                    if (witnessDistance[next] == INFINITY) {
+                        witnessTouched.add(next);
+                    }
+                    witnessDistance[next] = distance;
+                    witnessQueue.push(distance, next);
+                }
+            }
+        }
+
+        private void clearWitnesses() {
+            for (int i = 0; i < witnessTouched.size(); i++) {
+                witnessDistance[witnessTouched.get(i)] = INFINITY;
+            }
+            witnessTouched.clear();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package solver;
+
+import java.util.List;
+
+/**
+ * A search strategy used by Solver to find a path between two locations in a solver.Maze().
+ * <p>
+ * Locations are Points in reflected {@code (row, col)} format, the same format used by Maze and Solver.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1000
+ * @see Solver
+ * @see FlatBreadthFirstSearch
+ * @see AStarSearch
+ */
+public interface SearchStrategy {
+
+    /**
+     * Finds a shortest path from the start location to the goal location.
+     *
+     * @param maze  - a floor map in solver.Maze format.
+     * @param start - the starting location point (row, col).
+     * @param goal  - the goal location point (row, col).
+     * @return a List of Points from start to goal, inclusive, or an empty List if the goal can not be reached.
+     */
+    List<Point> search(Maze maze, Point start, Point goal);
+
+    /**
+     * Returns the number of cells expanded (removed from the frontier and searched) by the last search.
+     *
+     * @return the number of cells expanded by the last search.
+     */
+    int getExpandedCount();
+}
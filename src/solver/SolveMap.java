@@ -3,10 +3,12 @@ package solver;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 public class SolveMap {
     private static boolean kivaCommands = false;
+    private static volatile MazeCache mazeCache = null;
 
     /**
      * If parameter is set to true, prints Kiva commands to console after solving maze.
@@ -17,6 +19,15 @@ public class SolveMap {
         kivaCommands = printKivaCommands;
     }
 
+    /**
+     * Sets a cache for the maps solve(File) loads, so a map solved again is not read and parsed again.
+     *
+     * @param cache - the MazeCache to use, or null to load every map from its file.
+     */
+    public static void setMazeCache(MazeCache cache) {
+        mazeCache = cache;
+    }
+
     /**
      * Opens a GUI file selector dialog in the source directory where the user can select a Maze or FloorMap file.
      * Restricts extensions to text files (*.txt).
@@ -46,10 +57,11 @@ public class SolveMap {
 
     /**
      * Solves a selected map from a File.
+     * If a MazeCache is set, the map is taken from the cache.
      * @param file The file with the map to be solved.
      */
     public static String solve(File file) {
-        Maze maze = new Maze(file);
+        Maze maze = loadMaze(file);
         Solver solver = new Solver();
         List<Point> path = solver.solve(maze);
         maze.printPath(path);
@@ -61,6 +73,18 @@ public class SolveMap {
         return commands;
     }
 
+    private static Maze loadMaze(File file) {
+        MazeCache cache = mazeCache;
+        if (cache != null) {
+            try {
+                return cache.get(file);
+            } catch (IOException e) {
+                // fall through to Maze(File), which reports the error and uses the default map
+            }
+        }
+        return new Maze(file);
+    }
+
     public static void main(String[] args){
         solve(selectFile());
     }
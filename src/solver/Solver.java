@@ -1,9 +1,12 @@
 package solver;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -13,15 +16,42 @@ import java.util.stream.Stream;
  * <p>
  * Given a solver.Maze() object, solves the map from starting location to pod location to drop zone location,
  * or from start to end if there is no pod in the map.
+ * <p>
+ * Each leg is searched with a SearchStrategy, FlatBreadthFirstSearch unless another strategy is selected.
+ * BidirectionalBreadthFirstSearch suits large start-to-end mazes with no pod,
+ * and a RouteIndex built once answers every mission on a warehouse layout that does not change.
+ * HierarchicalSearch trades a few extra steps for much less memory on very large floors,
+ * and BitParallelSearch finds shortest paths with a few bits of scratch memory per cell.
+ * If a DistanceFieldCache is set, legs that end at the drop zone are read from the cached distance field instead,
+ * and if a RouteCache is set, a mission that was solved before on the same maze version is not searched at all.
+ * <p>
+ * solve() never changes the Maze, and each solve borrows an idle SearchStrategy made by the strategy Supplier
+ * and gives it back afterwards, so one Solver and one Maze can serve many threads at once without locking,
+ * and a dropped Solver leaves no search scratch behind in the threads that used it.
+ * A SearchStrategy keeps scratch arrays between searches, so a single strategy instance given to
+ * Solver(SearchStrategy) or setStrategy() is shared by every thread and must only be used by one thread at a time.
  *
  * @author StephanPeters (speters33w)
- * @version 20220704.2330
+ * @version 20261018.1100
  * @see Maze
+ * @see SearchStrategy
+ * @see FlatBreadthFirstSearch
+ * @see AStarSearch
+ * @see BidirectionalBreadthFirstSearch
+ * @see RouteIndex
+ * @see HierarchicalSearch
+ * @see BitParallelSearch
+ * @see DistanceFieldCache
+ * @see RouteCache
  */
 public class Solver {
 
     boolean debugging = false;
-    public boolean unsolvable = false;
+
+    /**
+     * True if the last solve, on any thread, found no path. With several threads use isUnsolvable() instead.
+     */
+    public volatile boolean unsolvable = false;
 
     static final Point[] DIRECTIONS = facingDirection.deltas();
 
@@ -63,17 +93,213 @@ public class Solver {
             {facingDirection.LEFT, facingDirection.LEFT.getDelta()},
     }).collect(Collectors.toMap(data -> (facingDirection) data[0], data -> (Point) data[1]));
 
-    private final List<Point> path = new LinkedList<>();
+    private volatile Supplier<? extends SearchStrategy> strategies;
+    private volatile DistanceFieldCache distanceFields = null;
+    private volatile RouteCache routes = null;
+    // idle search scratch, borrowed by one solve at a time so solves on a shared Solver run at the same time
+    private final ConcurrentLinkedQueue<SearchContext> idleContexts = new ConcurrentLinkedQueue<>();
+    // the result of each thread's last solve, a Boolean so a dropped Solver leaves no scratch behind in a thread
+    private final ThreadLocal<Boolean> lastUnsolvable = new ThreadLocal<>();
 
+    /**
+     * The scratch of one solve at a time: a SearchStrategy made by the Solver's Supplier and the result of the solve.
+     */
+    private static final class SearchContext {
+        final Supplier<? extends SearchStrategy> strategies;
+        final SearchStrategy strategy;
+        final VisitedMarks visited = new VisitedMarks();
+        boolean unsolvable = false;
+
+        SearchContext(Supplier<? extends SearchStrategy> strategies) {
+            this.strategies = strategies;
+            this.strategy = strategies.get();
+            if (strategy == null) {
+                throw new IllegalArgumentException("search strategy supplier returned null");
+            }
+        }
+    }
+
+    /**
+     * Creates a Solver that searches with FlatBreadthFirstSearch, one per concurrent solve.
+     */
+    public Solver() {
+        this(FlatBreadthFirstSearch::new);
+    }
+
+    /**
+     * Creates a Solver that searches with the given strategy, shared by every thread.
+     *
+     * @param strategy - the SearchStrategy used to solve each leg of the map.
+     */
+    public Solver(SearchStrategy strategy) {
+        setStrategy(strategy);
+    }
+
+    /**
+     * Creates a Solver that gives each concurrent solve its own SearchStrategy from a Supplier.
+     *
+     * @param strategies - makes the SearchStrategy a solve uses, for example {@code AStarSearch::new}.
+     */
+    public Solver(Supplier<? extends SearchStrategy> strategies) {
+        setStrategySupplier(strategies);
+    }
+
+    /**
+     * Returns a SearchStrategy the Solver uses to solve each leg of the map.
+     * A Solver made with a Supplier keeps several, so the one returned may be used by a later solve on any thread.
+     *
+     * @return the current SearchStrategy.
+     */
+    public SearchStrategy getStrategy() {
+        SearchContext context = borrowContext();
+        try {
+            return context.strategy;
+        } finally {
+            idleContexts.offer(context);
+        }
+    }
+
+    /**
+     * Selects the SearchStrategy used to solve each leg of the map, shared by every thread.
+     *
+     * @param strategy - the SearchStrategy to use, for example a FlatBreadthFirstSearch or an AStarSearch.
+     */
+    public void setStrategy(SearchStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("search strategy can not be null");
+        }
+        this.strategies = () -> strategy;
+    }
+
+    /**
+     * Selects the Supplier that makes the SearchStrategies solves borrow.
+     * Solves started afterwards search with the new strategy.
+     *
+     * @param strategies - makes the SearchStrategy a solve uses, for example {@code AStarSearch::new}.
+     */
+    public void setStrategySupplier(Supplier<? extends SearchStrategy> strategies) {
+        if (strategies == null) {
+            throw new IllegalArgumentException("search strategy supplier can not be null");
+        }
+        this.strategies = strategies;
+    }
+
+    /**
+     * Returns whether the calling thread's last solve found no path.
+     *
+     * @return true if the last solve on this thread could not reach the pod or the drop zone.
+     */
+    public boolean isUnsolvable() {
+        return Boolean.TRUE.equals(lastUnsolvable.get());
+    }
+
+    /**
+     * Borrows an idle SearchContext for the current strategy Supplier, or makes one if none is idle.
+     * Idle contexts for an earlier Supplier are dropped. Give it back with idleContexts.offer() when done.
+     */
+    private SearchContext borrowContext() {
+        Supplier<? extends SearchStrategy> current = strategies;
+        SearchContext context = idleContexts.poll();
+        while (context != null && context.strategies != current) {
+            context = idleContexts.poll();
+        }
+        return context != null ? context : new SearchContext(current);
+    }
+
+    private void finish(SearchContext context) {
+        lastUnsolvable.set(context.unsolvable);
+        idleContexts.offer(context);
+    }
+
+
+    /**
+     * Sets a cache of distance fields used for the legs that end at the drop zone.
+     * Only the first solve for a drop zone searches the map, later solves walk the cached field.
+     *
+     * @param distanceFields - the DistanceFieldCache to use, may be shared between Solvers, or null to search every leg.
+     */
+    public void setDistanceFieldCache(DistanceFieldCache distanceFields) {
+        this.distanceFields = distanceFields;
+    }
+
+    /**
+     * Sets a cache of solved missions, so a mission on a maze that has not changed is only searched once.
+     *
+     * @param routes - the RouteCache to use, may be shared between Solvers, or null to search every mission.
+     */
+    public void setRouteCache(RouteCache routes) {
+        this.routes = routes;
+    }
 
     /**
      * This is the main entry point for the maze solver.
+     * The maze is only read, so several threads may solve the same maze at once.
+     * If a RouteCache is set and holds this mission, the cached path is returned without searching.
      *
      * @param maze - a floor map in solver.Maze format
      * @return a List of Points containing the solution.
+     * @throws IllegalArgumentException if the floor has more than Integer.MAX_VALUE cells.
      */
     public List<Point> solve(Maze maze) {
-        List<Point> returnPath = new LinkedList<>();
+        SearchContext context = borrowContext();
+        try {
+            RouteCache routes = this.routes;
+            if (routes == null) {
+                return search(maze, context);
+            }
+            return cachedRoute(maze, context, routes).getPath();
+        } finally {
+            finish(context);
+        }
+    }
+
+    /**
+     * Solves the maze and returns the Kiva commands for the solution, as constructKivaCommands(solve(maze)) does.
+     * If a RouteCache is set and holds this mission, the cached commands are returned without searching.
+     *
+     * @param maze - a floor map in solver.Maze format
+     * @return String with the Kiva commands.
+     * @throws IllegalArgumentException if the floor has more than Integer.MAX_VALUE cells.
+     */
+    public String solveCommands(Maze maze) {
+        SearchContext context = borrowContext();
+        try {
+            RouteCache routes = this.routes;
+            if (routes == null) {
+                return constructKivaCommands(search(maze, context));
+            }
+            return cachedRoute(maze, context, routes).getCommands();
+        } finally {
+            finish(context);
+        }
+    }
+
+    /**
+     * Returns the cached route for the maze's mission, searching and caching it first if it is not cached.
+     * The key is taken before searching, so a route found while the maze changed is stored under the old version.
+     */
+    private RouteCache.Route cachedRoute(Maze maze, SearchContext context, RouteCache routes) {
+        Class<?> source = distanceFields != null ? DistanceField.class : context.strategy.getClass();
+        RouteCache.Key key = new RouteCache.Key(maze, source);
+        RouteCache.Route route = routes.get(key);
+        if (route != null) {
+            context.unsolvable = route.isUnsolvable();
+            this.unsolvable = route.isUnsolvable();
+            return route;
+        }
+        List<Point> path = search(maze, context);
+        return routes.put(key, path, maze.getWidth(), constructKivaCommands(path), context.unsolvable);
+    }
+
+    /**
+     * Searches each leg of the maze's mission with the borrowed SearchStrategy or the DistanceFieldCache.
+     */
+    private List<Point> search(Maze maze, SearchContext context) {
+        maze.getCellCount(); // fails fast on a floor too large to search
+        SearchStrategy strategy = context.strategy;
+        DistanceFieldCache distanceFields = this.distanceFields;
+        boolean failed = false;
+        List<Point> returnPath = new ArrayList<>();
         //if the map has a pod,
         if (debugging) {
             System.out.println("Pod location: " + maze.getPodLocation());
@@ -81,8 +307,7 @@ public class Solver {
         if (maze.getPodLocation() != null) {
 
             // get the path of points from the Kiva to the pod
-            List<Point> pathToPod = solver(maze, maze.getInitialKivaLocation()); // Points are reflected (y,x) or [row],[col].
-            Collections.reverse(pathToPod);
+            List<Point> pathToPod = strategy.search(maze, maze.getInitialKivaLocation(), maze.getPodLocation()); // Points are reflected (y,x) or [row],[col].
             // and add the Points to the return list.
             returnPath.addAll(pathToPod);
             if (debugging) {
@@ -91,77 +316,111 @@ public class Solver {
             // In case there is no path to the pod;
             if (pathToPod.isEmpty()) {
                 System.out.println("Kiva mission aborted, Kiva can not go to pod location.");
-                this.unsolvable = true;
+                failed = true;
             }
 
             // Then get the path of points from the pod to the drop zone
-            List<Point> pathToDropZone = solver(maze, maze.getDropZoneLocation()); // Points are reflected (y,x) or [row],[col].
+            List<Point> pathToDropZone = searchToDropZone(maze, maze.getPodLocation(), strategy, distanceFields); // Points are reflected (y,x) or [row],[col].
             // and add the Points to the return list.
             returnPath.addAll(pathToDropZone);
             if (debugging) {
                 System.out.println(pathToDropZone);
-                this.unsolvable = false;
             }
             // In case there is no path to the drop zone;
             if (pathToDropZone.isEmpty() || pathToDropZone.size() == 1) {
                 System.out.println("Kiva mission aborted, Kiva can not go to drop zone location.");
-                this.unsolvable = true;
+                failed = true;
             }
         }
         // If the map is a simple start-to-finish maze,
         else {
-            // Solve for simple start-to-finish maze,
-            maze.setPodLocation(maze.getDropZoneLocation());
-            List<Point> pathToPod = solver(maze, maze.getInitialKivaLocation()); // Points are reflected (y,x) or [row],[col].
-            Collections.reverse(pathToPod);
+            // Solve for simple start-to-finish maze, the drop zone takes the place of the pod.
+            List<Point> pathToPod = distanceFields != null
+                    ? distanceFields.get(maze, maze.getDropZoneLocation()).pathFrom(maze.getInitialKivaLocation())
+                    : strategy.search(maze, maze.getInitialKivaLocation(), maze.getDropZoneLocation()); // Points are reflected (y,x) or [row],[col].
             // and send the competed map with the solution to the caller.
             if (debugging) {
                 System.out.println(pathToPod);
             }
             returnPath = pathToPod;
         }
+        context.unsolvable = failed;
+        this.unsolvable = failed;
         // Send the competed map with the solution to the caller.
         return returnPath;
     }
 
     /**
-     * The main solver method.
+     * Finds the path from the pod to the drop zone,
+     * from the DistanceFieldCache if one is set, otherwise with the SearchStrategy.
+     *
+     * @param maze           - a floor map in solver.Maze format.
+     * @param start          - the starting location point.
+     * @param strategy       - the borrowed SearchStrategy.
+     * @param distanceFields - the DistanceFieldCache, or null.
+     * @return a List of Points from start to the drop zone.
+     */
+    private static List<Point> searchToDropZone(Maze maze, Point start, SearchStrategy strategy,
+                                                DistanceFieldCache distanceFields) {
+        if (distanceFields != null) {
+            return distanceFields.get(maze, maze.getDropZoneLocation()).pathFrom(start);
+        }
+        // search from the drop zone so ties are broken the same way as solver(Maze, Point).
+        List<Point> pathToDropZone = strategy.search(maze, maze.getDropZoneLocation(), start);
+        Collections.reverse(pathToDropZone);
+        return pathToDropZone;
+    }
+
+    /**
+     * The original Point based solver method.
+     * Allocates a new Point for every neighbor searched, solve(Maze) uses FlatBreadthFirstSearch instead.
+     * Searches for the pod location, or the drop zone if the map has no pod.
+     * The visited marks are borrowed from the Solver's idle scratch, not kept by the maze, so the maze may be searched
+     * by several threads.
+     * They are stamped with an epoch, so starting a search does not clear an array the size of the maze.
      *
      * @param maze          - a floor map in solver.Maze format.
      * @param startLocation - the starting location point.
      * @return a List of Points containing the solution.
      */
     public List<Point> solver(Maze maze, Point startLocation) {
-        LinkedList<Point> nextToVisit = new LinkedList<>();
-        path.clear();
-        nextToVisit.add(startLocation);
+        SearchContext context = borrowContext();
+        try {
+            LinkedList<Point> nextToVisit = new LinkedList<>();
+            final int width = maze.getWidth();
+            VisitedMarks visited = context.visited;
+            visited.reset(maze.getCellCount());
+            Point goal = maze.getPodLocation() != null ? maze.getPodLocation() : maze.getDropZoneLocation();
+            nextToVisit.add(startLocation);
 
-        while (!nextToVisit.isEmpty()) {
-            Point currentPoint = nextToVisit.remove();
+            while (!nextToVisit.isEmpty()) {
+                Point currentPoint = nextToVisit.remove();
 
-            if (!maze.isValidLocation(currentPoint.getX(), currentPoint.getY()) || maze.isExplored(currentPoint.getX(), currentPoint.getY())) {
-                continue;
-            }
+                if (!maze.isValidLocation(currentPoint.getX(), currentPoint.getY()) || visited.isMarked(currentPoint.getX() * width + currentPoint.getY())) {
+                    continue;
+                }
 
-            if (maze.isObstacle(currentPoint.getX(), currentPoint.getY())) {
-                maze.setVisited(currentPoint.getX(), currentPoint.getY(), true);
-                continue;
-            }
+                if (maze.isObstacle(currentPoint.getX(), currentPoint.getY())) {
+                    visited.mark(currentPoint.getX() * width + currentPoint.getY());
+                    continue;
+                }
 
-            if (maze.isPodLocation(currentPoint.getX(), currentPoint.getY())) {
-                maze.reset();
-                return backtrackPath(currentPoint);
-            }
+                if (currentPoint.getX() == goal.getX() && currentPoint.getY() == goal.getY()) {
+                    return backtrackPath(currentPoint);
+                }
 
 
-            for (Point direction : DIRECTIONS) {
-                Point coordinate = new Point(currentPoint.getX() + direction.getX(), currentPoint.getY() + direction.getY(), currentPoint);
-                nextToVisit.add(coordinate);
-                maze.setVisited(currentPoint.getX(), currentPoint.getY(), true);
+                for (Point direction : DIRECTIONS) {
+                    Point coordinate = new Point(currentPoint.getX() + direction.getX(), currentPoint.getY() + direction.getY(), currentPoint);
+                    nextToVisit.add(coordinate);
+                    visited.mark(currentPoint.getX() * width + currentPoint.getY());
+                }
             }
-        }
 
-        return Collections.emptyList();
+            return Collections.emptyList();
+        } finally {
+            idleContexts.offer(context);
+        }
     }
 
     /**
@@ -170,7 +429,8 @@ public class Solver {
      * @param currentPoint the current location of the search (y,x).
      * @return - a List of Points containing the path.
      */
-    private List<Point> backtrackPath(Point currentPoint) {
+    private static List<Point> backtrackPath(Point currentPoint) {
+        List<Point> path = new LinkedList<>();
         Point iteration = currentPoint;
 
         while (iteration != null) {
@@ -0,0 +1,90 @@
+package solver;
+
+/**
+ * Cells and moves a Kiva may not use at given timesteps, used by SpaceTimeSearch to plan around other Kivas.
+ * <p>
+ * Cells are flat indices ({@code row * width + col}) and times are whole timesteps; every move or wait takes one step.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1900
+ * @see SpaceTimeSearch
+ * @see ConflictBasedSearch
+ * @see ReservationTable
+ */
+public interface SpaceTimeConstraints {
+
+    /**
+     * No constraints at all.
+     */
+    SpaceTimeConstraints NONE = new SpaceTimeConstraints() {
+        @Override
+        public boolean isCellBlocked(int cell, int time) {
+            return false;
+        }
+
+        @Override
+        public boolean isMoveBlocked(int fromCell, int toCell, int time) {
+            return false;
+        }
+
+        @Override
+        public int getLastBlockedTime(int cell) {
+            return -1;
+        }
+
+        @Override
+        public int getLastConstrainedTime(int cell) {
+            return -1;
+        }
+
+        @Override
+        public int getHorizon() {
+            return -1;
+        }
+    };
+
+    /**
+     * Returns true if the Kiva may not be in a cell at a timestep.
+     *
+     * @param cell - the flat index of the cell.
+     * @param time - the timestep.
+     * @return true if the cell is blocked at that time.
+     */
+    boolean isCellBlocked(int cell, int time);
+
+    /**
+     * Returns true if the Kiva may not move between two neighboring cells, arriving at a timestep.
+     *
+     * @param fromCell - the flat index of the cell the move leaves.
+     * @param toCell   - the flat index of the cell the move enters.
+     * @param time     - the timestep the move arrives.
+     * @return true if the move is blocked.
+     */
+    boolean isMoveBlocked(int fromCell, int toCell, int time);
+
+    /**
+     * Returns the last timestep a cell is blocked, so a Kiva knows when it can stay in the cell for good.
+     *
+     * @param cell - the flat index of the cell.
+     * @return the last blocked timestep, -1 if the cell is never blocked,
+     * or Integer.MAX_VALUE if it is blocked for good.
+     */
+    int getLastBlockedTime(int cell);
+
+    /**
+     * Returns the last timestep a cell is blocked or is either end of a blocked move.
+     * A later timestep is allowed, it only makes the search consider waiting in more places.
+     *
+     * @param cell - the flat index of the cell.
+     * @return the last timestep, -1 if the cell is never constrained,
+     * or Integer.MAX_VALUE if it is blocked for good.
+     */
+    int getLastConstrainedTime(int cell);
+
+    /**
+     * Returns the last timestep any cell or move is blocked. After it, waiting never helps.
+     *
+     * @return the last blocked timestep, or -1 if nothing is blocked.
+     */
+    int getHorizon();
+}
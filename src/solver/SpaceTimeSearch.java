@@ -0,0 +1,334 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A space-time A* search for one Kiva's Mission on a floor shared with other Kivas.
+ * <p>
+ * States are {@code (cell, timestep, has pod)}. Each timestep the Kiva moves to an open neighbor or waits in place,
+ * and SpaceTimeConstraints say which cells and moves are taken by other Kivas at which timesteps.
+ * Waits are only tried next to cells that are constrained later on, anywhere else they can not help.
+ * The search finishes when the Kiva is at its drop zone with the pod and no constraint will ever move it again.
+ * After the last constrained timestep (the horizon) time no longer matters, so later states of the same cell
+ * are merged and the search stays finite even when the goal can not be reached.
+ * <p>
+ * The heuristic is the Breadth First distance through the pod to the drop zone when a DistanceFieldCache
+ * is given, and the Manhattan distance otherwise, but never less than the time left until the drop zone
+ * is free for good. Paths are time indexed: element {@code i} is where the Kiva
+ * is at timestep {@code startTime + i}, so a wait repeats a location. Unlike Solver.solve(),
+ * the pod location is listed once, picking it up takes no extra timestep.
+ *
+ * @author StephanPeters (speters33w)
+ * @version 20261017.1900
+ * @see SpaceTimeConstraints
+ * @see ConflictBasedSearch
+ */
+public class SpaceTimeSearch {
+
+    private static final int NONE = -1;
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    private final DistanceFieldCache distanceFields;
+
+    private final LongIntMap stateNodes = new LongIntMap(1024);
+    private final LongIntMap earliest = new LongIntMap(1024); // (cell, has pod) to the earliest time reached
+    private final IntHeap open = new IntHeap(1024);
+    private int[] nodeCell = new int[1024];
+    private int[] nodeTime = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private byte[] nodeHasPod = new byte[1024];
+    private int nodeCount = 0;
+    private int expanded = 0;
+
+    // the search in progress
+    private SpaceTimeConstraints constraints;
+    private DistanceField podField;
+    private DistanceField dropField;
+    private int podCell;
+    private int dropCell;
+    private int podToDrop;
+    private int startTime;
+    private int mergedTime;
+    private int settleTime;
+
+    /**
+     * Creates a SpaceTimeSearch that uses the Manhattan distance as its heuristic.
+     *
+     * @param maze - a floor map in solver.Maze format.
+     */
+    public SpaceTimeSearch(Maze maze) {
+        this(maze, null);
+    }
+
+    /**
+     * Creates a SpaceTimeSearch that uses distance fields from a cache as its heuristic.
+     *
+     * @param maze           - a floor map in solver.Maze format.
+     * @param distanceFields - the cache of distance fields to pods and drop zones, or null for the Manhattan distance.
+     */
+    public SpaceTimeSearch(Maze maze, DistanceFieldCache distanceFields) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.distanceFields = distanceFields;
+    }
+
+    /**
+     * Finds the earliest arriving path for a mission that respects the constraints.
+     *
+     * @param mission     - the Kiva's start, pod and drop zone.
+     * @param startTime   - the timestep the Kiva is at its start.
+     * @param constraints - the cells and moves taken by other Kivas.
+     * @return a time indexed List of Points from the start, or an empty List if the mission can not be completed.
+     */
+    public List<Point> search(Mission mission, int startTime, SpaceTimeConstraints constraints) {
+        DistanceField toPod = null;
+        DistanceField toDrop = null;
+        if (distanceFields != null) {
+            toPod = mission.hasPod() ? distanceFields.get(maze, mission.getPod()) : null;
+            toDrop = distanceFields.get(maze, mission.getDropZone());
+        }
+        return toPoints(searchCells(mission, startTime, constraints, toPod, toDrop));
+    }
+
+    /**
+     * Tells whether this search plans on the given maze.
+     */
+    boolean isFor(Maze maze) {
+        return this.maze == maze;
+    }
+
+    /**
+     * Returns the number of states expanded by the last search.
+     *
+     * @return the number of states expanded by the last search.
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Finds the earliest arriving path as flat cell indices, one per timestep.
+     *
+     * @param toPod  - the distance field to the pod, or null to use the Manhattan distance.
+     * @param toDrop - the distance field to the drop zone, or null to use the Manhattan distance.
+     * @return the cells, or null if the mission can not be completed.
+     */
+    int[] searchCells(Mission mission, int startTime, SpaceTimeConstraints constraints,
+                      DistanceField toPod, DistanceField toDrop) {
+        expanded = 0;
+        nodeCount = 0;
+        stateNodes.clear();
+        earliest.clear();
+        open.clear();
+        Point start = mission.getStart();
+        Point pod = mission.getPod();
+        Point drop = mission.getDropZone();
+        if (!isOpen(start.getX(), start.getY()) || !isOpen(drop.getX(), drop.getY())
+                || (pod != null && !isOpen(pod.getX(), pod.getY()))) {
+            return null;
+        }
+        this.constraints = constraints;
+        this.podField = toPod;
+        this.dropField = toDrop;
+        this.startTime = startTime;
+        this.podCell = pod == null ? NONE : pod.getX() * width + pod.getY();
+        this.dropCell = drop.getX() * width + drop.getY();
+        this.mergedTime = Math.max(constraints.getHorizon() + 1, startTime);
+        try {
+            this.podToDrop = pod == null ? 0 : distance(dropField, podCell, dropCell);
+            int startCell = start.getX() * width + start.getY();
+            int hasPod = pod == null || startCell == podCell ? 1 : 0;
+            this.settleTime = constraints.getLastBlockedTime(dropCell);
+            if (settleTime == Integer.MAX_VALUE) {
+                return null; // the drop zone is never free for good
+            }
+            int estimate = estimate(startCell, startTime, hasPod);
+            if (podToDrop < 0 || estimate < 0 || constraints.isCellBlocked(startCell, startTime)) {
+                return null;
+            }
+            int first = addNode(startCell, startTime, hasPod, NONE);
+            stateNodes.put(stateKey(startCell, startTime, hasPod), first);
+            open.push(AStarSearch.key(estimate, 0), first);
+
+            while (!open.isEmpty()) {
+                long key = open.peekKey();
+                int node = open.poll();
+                int g = Integer.MAX_VALUE - (int) key;
+                if (g != nodeTime[node] - startTime) {
+                    continue; // stale entry
+                }
+                int cell = nodeCell[node];
+                int time = nodeTime[node];
+                int carrying = nodeHasPod[node];
+                if (carrying == 1 && cell == dropCell && time > settleTime) {
+                    return buildPath(node);
+                }
+                expanded++;
+                int row = cell / width;
+                int col = cell - row * width;
+                if (isWaitUseful(cell, row, col, time)) {
+                    tryMove(node, cell, cell, time + 1, carrying);
+                }
+                for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+                    int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+                    int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+                    if (isOpen(nextRow, nextCol)) {
+                        tryMove(node, cell, nextRow * width + nextCol, time + 1, carrying);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            this.constraints = null;
+            this.podField = null;
+            this.dropField = null;
+        }
+    }
+
+    private void tryMove(int node, int cell, int next, int time, int carrying) {
+        if (constraints.isCellBlocked(next, time) || (next != cell && constraints.isMoveBlocked(cell, next, time))) {
+            return;
+        }
+        int nextHasPod = carrying == 0 && next == podCell ? 1 : carrying;
+        int estimate = estimate(next, time, nextHasPod);
+        if (estimate < 0) {
+            return;
+        }
+        if (next != cell && isDominated(next, time, nextHasPod)) {
+            return;
+        }
+        long state = stateKey(next, time, nextHasPod);
+        int existing = stateNodes.get(state, NONE);
+        if (existing == NONE) {
+            existing = addNode(next, time, nextHasPod, node);
+            stateNodes.put(state, existing);
+        } else if (time < nodeTime[existing]) {
+            // a merged state after the horizon, reached earlier than before
+            nodeTime[existing] = time;
+            nodeParent[existing] = node;
+        } else {
+            return;
+        }
+        int g = time - startTime;
+        open.push(AStarSearch.key(g + estimate, g), existing);
+    }
+
+    /**
+     * A cell reached earlier and free ever since can be held by waiting there, so arriving later adds nothing.
+     */
+    private boolean isDominated(int cell, int time, int hasPod) {
+        long key = ((long) cell << 1) | hasPod;
+        int first = earliest.get(key, NONE);
+        if (first == NONE || time < first) {
+            earliest.put(key, time);
+            return false;
+        }
+        return time > first && constraints.getLastConstrainedTime(cell) <= first;
+    }
+
+    /**
+     * Waiting only helps if the cell or one of its neighbors is constrained later on. Otherwise any wait here
+     * can be made one step later, one cell further along the path, without changing when the Kiva arrives.
+     */
+    private boolean isWaitUseful(int cell, int row, int col, int time) {
+        if (constraints.getLastConstrainedTime(cell) > time) {
+            return true;
+        }
+        for (int direction = 0; direction < FlatBreadthFirstSearch.ROW_DELTAS.length; direction++) {
+            int nextRow = row + FlatBreadthFirstSearch.ROW_DELTAS[direction];
+            int nextCol = col + FlatBreadthFirstSearch.COL_DELTAS[direction];
+            if (nextRow >= 0 && nextRow < height && nextCol >= 0 && nextCol < width
+                    && constraints.getLastConstrainedTime(nextRow * width + nextCol) > time) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the timesteps still needed from a state, or -1 if the drop zone can not be reached from it.
+     * The Kiva can not settle at the drop zone before the drop zone's last blocked timestep has passed.
+     */
+    private int estimate(int cell, int time, int hasPod) {
+        int steps = heuristic(cell, hasPod);
+        return steps < 0 ? -1 : Math.max(steps, settleTime + 1 - time);
+    }
+
+    /**
+     * Returns the steps still needed from a cell, or -1 if the drop zone can not be reached from it.
+     */
+    private int heuristic(int cell, int hasPod) {
+        if (hasPod == 1) {
+            return distance(dropField, cell, dropCell);
+        }
+        int toPod = distance(podField, cell, podCell);
+        return toPod < 0 ? -1 : toPod + podToDrop;
+    }
+
+    private int distance(DistanceField field, int cell, int target) {
+        int row = cell / width;
+        int col = cell - row * width;
+        if (field == null) {
+            return AStarSearch.manhattan(row, col, target / width, target % width);
+        }
+        return field.getDistance(row, col);
+    }
+
+    /**
+     * States after the horizon are merged by giving them all the same time in the key.
+     */
+    private long stateKey(int cell, int time, int hasPod) {
+        long keyTime = Math.min(time, mergedTime);
+        return ((keyTime << 1) | hasPod) * ((long) width * height) + cell;
+    }
+
+    private int addNode(int cell, int time, int hasPod, int parent) {
+        if (nodeCount == nodeCell.length) {
+            int capacity = nodeCount * 2;
+            nodeCell = Arrays.copyOf(nodeCell, capacity);
+            nodeTime = Arrays.copyOf(nodeTime, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeHasPod = Arrays.copyOf(nodeHasPod, capacity);
+        }
+        nodeCell[nodeCount] = cell;
+        nodeTime[nodeCount] = time;
+        nodeParent[nodeCount] = parent;
+        nodeHasPod[nodeCount] = (byte) hasPod;
+        return nodeCount++;
+    }
+
+    private int[] buildPath(int goalNode) {
+        int[] cells = new int[nodeTime[goalNode] - startTime + 1];
+        for (int node = goalNode; node != NONE; node = nodeParent[node]) {
+            cells[nodeTime[node] - startTime] = nodeCell[node];
+        }
+        return cells;
+    }
+
+    private boolean isOpen(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width && !maze.isObstacle(row, col);
+    }
+
+    /**
+     * Turns flat cell indices into Points in (row, col) format.
+     *
+     * @param cells - the cells, or null.
+     * @return the List of Points, empty if cells is null.
+     */
+    List<Point> toPoints(int[] cells) {
+        if (cells == null) {
+            return Collections.emptyList();
+        }
+        List<Point> path = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            path.add(new Point(cell / width, cell % width));
+        }
+        return path;
+    }
+}